@@ -45,7 +45,10 @@ LOCAL_SRC_FILES := JSContext.cpp \
                    JSString.cpp \
                    JSValue.cpp \
                    Instance.cpp \
-                   JSFunction.cpp
+                   JSFunction.cpp \
+                   JSHostObject.cpp \
+                   JSTypedArray.cpp \
+                   JSArrayBuffer.cpp
 
 LOCAL_SHARED_LIBRARIES := javascriptcore
 
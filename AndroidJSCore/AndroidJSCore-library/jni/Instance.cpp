@@ -33,13 +33,24 @@
 
 #include "Instance.h"
 
+JSClassRef Instance::CreateClass(JSClassDefinition def)
+{
+    def.finalize = StaticFinalizeCallback;
+    return JSClassCreate(&def);
+}
+
+JSClassRef Instance::DefaultClass()
+{
+    // Plain instances share one class, which lives as long as the library
+    static JSClassRef classRef = CreateClass(kJSClassDefinitionEmpty);
+    return classRef;
+}
+
 Instance::Instance(JNIEnv *env, jobject thiz, JSContextRef ctx,
-        JSClassDefinition def, JSStringRef name)
+        JSClassRef classRef, JSStringRef name)
 {
     env->GetJavaVM(&jvm);
-    definition = def;
-    definition.finalize = StaticFinalizeCallback;
-    classRef = JSClassCreate(&definition);
+    globalCtx = JSContextGetGlobalContext(ctx);
     objRef = JSObjectMake(ctx, classRef, name);
     JSValueProtect(ctx, objRef);
     this->thiz = env->NewWeakGlobalRef(thiz);
@@ -51,7 +62,6 @@ Instance::Instance(JNIEnv *env, jobject thiz, JSContextRef ctx,
 
 Instance::~Instance()
 {
-    JSClassRelease(classRef);
     JNIEnv *env;
     int getEnvStat = jvm->GetEnv((void**)&env, JNI_VERSION_1_6);
     if (getEnvStat == JNI_EDETACHED) {
@@ -77,7 +87,36 @@ Instance* Instance::getInstance(JSObjectRef objref)
     return inst;
 }
 
+std::vector<JSObjectRef> Instance::drainFinalized(JSContextRef ctx)
+{
+    std::vector<JSObjectRef> refs;
+    mutex.lock();
+    std::map<JSGlobalContextRef,std::vector<JSObjectRef> >::iterator it =
+        finalized.find(JSContextGetGlobalContext(ctx));
+    if (it != finalized.end()) {
+        for (size_t i=0; i<it->second.size(); i++) {
+            // Skip any address which has since been reused by a live instance
+            std::map<JSObjectRef,Instance *>::iterator live = objMap.find(it->second[i]);
+            if (live == objMap.end() || live->second == NULL) {
+                refs.push_back(it->second[i]);
+            }
+        }
+        finalized.erase(it);
+    }
+    mutex.unlock();
+    return refs;
+}
+
+void Instance::forgetFinalized(JSContextRef ctx)
+{
+    mutex.lock();
+    finalized.erase((JSGlobalContextRef)ctx);
+    mutex.unlock();
+}
+
 std::map<JSObjectRef,Instance *> Instance::objMap = std::map<JSObjectRef,Instance *>();
+std::map<JSGlobalContextRef,std::vector<JSObjectRef> > Instance::finalized =
+    std::map<JSGlobalContextRef,std::vector<JSObjectRef> >();
 std::mutex Instance::mutex;
 
 void Instance::StaticFinalizeCallback(JSObjectRef object)
@@ -85,6 +124,11 @@ void Instance::StaticFinalizeCallback(JSObjectRef object)
     Instance *thiz = getInstance(object);
 
     if (thiz) {
+        // Record the finalization so that Java can release any object it kept alive
+        // on behalf of JavaScript.  These are collected in batches by drainFinalized().
+        mutex.lock();
+        finalized[thiz->globalCtx].push_back(object);
+        mutex.unlock();
         delete thiz;
     }
 }
@@ -37,25 +37,31 @@
 #include "JSJNI.h"
 #include <map>
 #include <mutex>
+#include <vector>
 
 class Instance {
 public:
     Instance(JNIEnv *env, jobject thiz, JSContextRef ctx,
-        JSClassDefinition def = kJSClassDefinitionEmpty, JSStringRef name = NULL);
+        JSClassRef classRef = DefaultClass(), JSStringRef name = NULL);
     virtual ~Instance();
     virtual long getObjRef() { return (long) objRef; }
     static Instance* getInstance(JSObjectRef objref);
+    static std::vector<JSObjectRef> drainFinalized(JSContextRef ctx);
+    static void forgetFinalized(JSContextRef ctx);
 
 protected:
     JavaVM *jvm;
     jobject thiz;
 
+    static JSClassRef CreateClass(JSClassDefinition def);
+    static JSClassRef DefaultClass();
+
 private:
     JSObjectRef objRef;
-    JSClassRef classRef;
-    JSClassDefinition definition;
+    JSGlobalContextRef globalCtx;
 
     static std::map<JSObjectRef,Instance *> objMap;
+    static std::map<JSGlobalContextRef,std::vector<JSObjectRef> > finalized;
     static std::mutex mutex;
 
     static void StaticFinalizeCallback(JSObjectRef object);
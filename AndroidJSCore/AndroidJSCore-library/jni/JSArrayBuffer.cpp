@@ -0,0 +1,116 @@
+//
+// JSArrayBuffer.cpp
+// AndroidJSCore project
+//
+// https://github.com/ericwlange/AndroidJSCore/
+//
+// Created by Eric Lange
+//
+/*
+ Copyright (c) 2014-2016 Eric Lange. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+#include "JSJNI.h"
+
+/* Keeps a Java ByteBuffer alive for as long as JavaScript holds an ArrayBuffer over its memory */
+struct ByteBufferHolder {
+    JavaVM *jvm;
+    jobject buffer;
+};
+
+static void releaseByteBuffer(void* bytes, void* deallocatorContext)
+{
+    ByteBufferHolder *holder = (ByteBufferHolder *) deallocatorContext;
+    JNIEnv *env;
+    int getEnvStat = holder->jvm->GetEnv((void**)&env, JNI_VERSION_1_6);
+    if (getEnvStat == JNI_EDETACHED) {
+        holder->jvm->AttachCurrentThread(&env, NULL);
+    }
+    env->DeleteGlobalRef(holder->buffer);
+    if (getEnvStat == JNI_EDETACHED) {
+        holder->jvm->DetachCurrentThread();
+    }
+    delete holder;
+}
+
+NATIVE(JSArrayBuffer,jboolean,hasBytesNoCopy) (PARAMS) {
+    return (jboolean) (JSObjectMakeArrayBufferWithBytesNoCopy != NULL);
+}
+
+NATIVE(JSArrayBuffer,jobject,makeWithByteBuffer) (PARAMS, jlong ctx, jobject buffer,
+    jint offset, jint length) {
+    JSValueRef exception = NULL;
+
+    jclass ret = env->FindClass("org/liquidplayer/webkit/javascriptcore/JSValue$JNIReturnObject");
+    jmethodID cid = env->GetMethodID(ret,"<init>","()V");
+    jobject out = env->NewObject(ret, cid);
+
+    JSObjectRef objRef = NULL;
+    jbyte *bytes = (jbyte *) env->GetDirectBufferAddress(buffer);
+    if (bytes && JSObjectMakeArrayBufferWithBytesNoCopy != NULL) {
+        ByteBufferHolder *holder = new ByteBufferHolder;
+        env->GetJavaVM(&holder->jvm);
+        holder->buffer = env->NewGlobalRef(buffer);
+        // On failure, JavaScriptCore calls the deallocator itself, so the holder is not
+        // released here
+        objRef = JSObjectMakeArrayBufferWithBytesNoCopy((JSContextRef) ctx, bytes + offset,
+            (size_t) length, releaseByteBuffer, holder, &exception);
+        if (objRef) {
+            JSValueProtect((JSContextRef) ctx, objRef);
+        }
+    }
+
+    jfieldID fid = env->GetFieldID(ret , "reference", "J");
+    env->SetLongField( out, fid, (jlong)objRef );
+
+    fid = env->GetFieldID(ret , "exception", "J");
+    env->SetLongField( out, fid, (long) exception);
+
+    return out;
+}
+
+NATIVE(JSArrayBuffer,jboolean,hasBytesPtr) (PARAMS) {
+    return (jboolean) (JSObjectGetArrayBufferBytesPtr != NULL &&
+        JSObjectGetArrayBufferByteLength != NULL);
+}
+
+NATIVE(JSArrayBuffer,jobject,getByteBuffer) (PARAMS, jlong ctx, jlong object) {
+    if (JSObjectGetArrayBufferBytesPtr == NULL || JSObjectGetArrayBufferByteLength == NULL) {
+        return NULL;
+    }
+    JSValueRef exception = NULL;
+    // Taking the bytes pointer pins the ArrayBuffer, so that its backing store is neither
+    // moved nor detached for as long as the ArrayBuffer is alive
+    void *bytes = JSObjectGetArrayBufferBytesPtr((JSContextRef) ctx, (JSObjectRef) object,
+        &exception);
+    if (exception || !bytes) {
+        return NULL;
+    }
+    size_t length = JSObjectGetArrayBufferByteLength((JSContextRef) ctx, (JSObjectRef) object,
+        &exception);
+    if (exception) {
+        return NULL;
+    }
+    return env->NewDirectByteBuffer(bytes, (jlong) length);
+}
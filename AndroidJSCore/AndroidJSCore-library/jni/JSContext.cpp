@@ -32,6 +32,7 @@
 */
 
 #include "JSJNI.h"
+#include "Instance.h"
 #include <pthread.h>
 #include <stdio.h>
 #include <unistd.h>
@@ -101,6 +102,7 @@ NATIVE(JSContext,jlong,retain) (PARAMS,jlong ctx) {
 
 NATIVE(JSContext,void,release) (PARAMS,jlong ctx) {
     JSGlobalContextRelease((JSGlobalContextRef) ctx);
+    Instance::forgetFinalized((JSContextRef) ctx);
 }
 
 NATIVE(JSContext,jlong,getGlobalObject) (PARAMS, jlong ctx) {
@@ -143,6 +145,22 @@ NATIVE(JSContext,jobject,evaluateScript) (PARAMS, jlong ctx, jlong script,
     return out;
 }
 
+NATIVE(JSContext,jobject,evaluateScriptAs) (PARAMS, jlong ctx, jlong script,
+    jlong thisObject, jlong sourceURL, int startingLineNumber, jint type) {
+
+    JSValueRef exception = NULL;
+
+    JSValueRef value = JSEvaluateScript(
+        (JSContextRef)ctx,
+        (JSStringRef)script,
+        (JSObjectRef)thisObject,
+        (JSStringRef)sourceURL,
+        startingLineNumber,
+        &exception);
+
+    return makeConvertedReturnObject(env, (JSContextRef)ctx, value, exception, type);
+}
+
 NATIVE(JSContext,jobject,checkScriptSyntax) (PARAMS, jlong ctx, jlong script,
         jlong sourceURL, jint startingLineNumber) {
 
@@ -171,3 +189,14 @@ NATIVE(JSContext,void,garbageCollect) (PARAMS, jlong ctx) {
     JSGarbageCollect((JSContextRef)ctx);
 }
 
+NATIVE(JSContext,jlongArray,drainFinalized) (PARAMS, jlong ctx) {
+    std::vector<JSObjectRef> refs = Instance::drainFinalized((JSContextRef)ctx);
+    jlongArray retArray = env->NewLongArray(refs.size());
+    jlong* objRefs = new jlong[refs.size()];
+    for (size_t i=0; i<refs.size(); i++) {
+        objRefs[i] = (long) refs[i];
+    }
+    env->SetLongArrayRegion(retArray,0,refs.size(),objRefs);
+    delete [] objRefs;
+    return retArray;
+}
@@ -41,8 +41,14 @@ JSClassDefinition JSFunction::JSFunctionClassDefinition() {
     return definition;
 }
 
+JSClassRef JSFunction::JSFunctionClass() {
+    // Every function shares one class, which lives as long as the library
+    static JSClassRef classRef = CreateClass(JSFunctionClassDefinition());
+    return classRef;
+}
+
 JSFunction::JSFunction(JNIEnv* env, jobject thiz, JSContextRef ctx, JSStringRef name)
-    : Instance(env, thiz, ctx, JSFunctionClassDefinition(), name)
+    : Instance(env, thiz, ctx, JSFunctionClass(), name)
 {
 }
 
@@ -51,6 +51,7 @@ class JSFunction : public Instance {
         static bool StaticHasInstanceCallback(JSContextRef ctx, JSObjectRef constructor,
                 JSValueRef possibleInstance, JSValueRef* exception);
         static JSClassDefinition JSFunctionClassDefinition();
+        static JSClassRef JSFunctionClass();
 
         JSObjectRef ConstructorCallback(JSContextRef ctx, JSObjectRef constructor,
                 size_t argumentCount, const JSValueRef arguments[], JSValueRef* exception);
@@ -0,0 +1,212 @@
+//
+// JSHostObject.cpp
+// AndroidJSCore project
+//
+// https://github.com/ericwlange/AndroidJSCore/
+//
+// Created by Eric Lange
+//
+/*
+ Copyright (c) 2014-2016 Eric Lange. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+#include "JSHostObject.h"
+
+JSClassDefinition JSHostObject::JSHostObjectClassDefinition() {
+    JSClassDefinition definition = kJSClassDefinitionEmpty;
+    definition.hasProperty = StaticHasPropertyCallback;
+    definition.getProperty = StaticGetPropertyCallback;
+    definition.getPropertyNames = StaticGetPropertyNamesCallback;
+    return definition;
+}
+
+JSClassRef JSHostObject::JSHostObjectClass() {
+    // Every host object shares one class, which lives as long as the library
+    static JSClassRef classRef = CreateClass(JSHostObjectClassDefinition());
+    return classRef;
+}
+
+JSHostObject::JSHostObject(JNIEnv* env, jobject thiz, JSContextRef ctx)
+    : Instance(env, thiz, ctx, JSHostObjectClass())
+{
+}
+
+JSHostObject::~JSHostObject() {
+}
+
+bool JSHostObject::StaticHasPropertyCallback(JSContextRef ctx, JSObjectRef object,
+        JSStringRef propertyName)
+{
+    JSHostObject *thiz = (JSHostObject *)getInstance(object);
+
+    if (thiz) {
+        return thiz->HasPropertyCallback(ctx,object,propertyName);
+    }
+    return false;
+}
+
+JSValueRef JSHostObject::StaticGetPropertyCallback(JSContextRef ctx, JSObjectRef object,
+        JSStringRef propertyName, JSValueRef* exception)
+{
+    JSHostObject *thiz = (JSHostObject *)getInstance(object);
+
+    if (thiz) {
+        return thiz->GetPropertyCallback(ctx,object,propertyName,exception);
+    }
+    return NULL;
+}
+
+void JSHostObject::StaticGetPropertyNamesCallback(JSContextRef ctx, JSObjectRef object,
+        JSPropertyNameAccumulatorRef propertyNames)
+{
+    JSHostObject *thiz = (JSHostObject *)getInstance(object);
+
+    if (thiz) {
+        thiz->GetPropertyNamesCallback(ctx,object,propertyNames);
+    }
+}
+
+jmethodID JSHostObject::getMethodID(JNIEnv *env, const char *name, const char *sig)
+{
+    jclass cls = env->GetObjectClass(thiz);
+    jmethodID mid;
+    do {
+        mid = env->GetMethodID(cls,name,sig);
+        if (!env->ExceptionCheck()) break;
+        env->ExceptionClear();
+        jclass super = env->GetSuperclass(cls);
+        env->DeleteLocalRef(cls);
+        if (super == NULL || env->ExceptionCheck()) {
+            if (super != NULL) env->DeleteLocalRef(super);
+            return NULL;
+        }
+        cls = super;
+    } while (true);
+    env->DeleteLocalRef(cls);
+    return mid;
+}
+
+bool JSHostObject::HasPropertyCallback(JSContextRef ctx, JSObjectRef object,
+        JSStringRef propertyName)
+{
+    JNIEnv *env;
+    int getEnvStat = jvm->GetEnv((void**)&env, JNI_VERSION_1_6);
+    if (getEnvStat == JNI_EDETACHED) {
+        jvm->AttachCurrentThread(&env, NULL);
+    }
+
+    bool ret = false;
+    jmethodID mid = getMethodID(env,"hasPropertyCallback","(JJLjava/lang/String;)Z");
+    if (mid != NULL) {
+        jstring name = env->NewString(JSStringGetCharactersPtr(propertyName),
+            JSStringGetLength(propertyName));
+        ret = env->CallBooleanMethod(thiz, mid, (jlong)ctx, (jlong)object, name);
+        if (env->ExceptionCheck()) {
+            env->ExceptionDescribe();
+            env->ExceptionClear();
+            ret = false;
+        }
+        env->DeleteLocalRef(name);
+    }
+
+    if (getEnvStat == JNI_EDETACHED) {
+        jvm->DetachCurrentThread();
+    }
+    return ret;
+}
+
+JSValueRef JSHostObject::GetPropertyCallback(JSContextRef ctx, JSObjectRef object,
+        JSStringRef propertyName, JSValueRef* exception)
+{
+    JNIEnv *env;
+    int getEnvStat = jvm->GetEnv((void**)&env, JNI_VERSION_1_6);
+    if (getEnvStat == JNI_EDETACHED) {
+        jvm->AttachCurrentThread(&env, NULL);
+    }
+
+    long ret = 0;
+    jmethodID mid = getMethodID(env,"getPropertyCallback","(JJLjava/lang/String;J)J");
+    if (mid != NULL) {
+        jstring name = env->NewString(JSStringGetCharactersPtr(propertyName),
+            JSStringGetLength(propertyName));
+        ret = env->CallLongMethod(thiz, mid, (jlong)ctx, (jlong)object, name,
+            (jlong)exception);
+        if (env->ExceptionCheck()) {
+            env->ExceptionDescribe();
+            env->ExceptionClear();
+            ret = 0;
+        }
+        env->DeleteLocalRef(name);
+    }
+
+    if (getEnvStat == JNI_EDETACHED) {
+        jvm->DetachCurrentThread();
+    }
+    return (JSValueRef)ret;
+}
+
+void JSHostObject::GetPropertyNamesCallback(JSContextRef ctx, JSObjectRef object,
+        JSPropertyNameAccumulatorRef propertyNames)
+{
+    JNIEnv *env;
+    int getEnvStat = jvm->GetEnv((void**)&env, JNI_VERSION_1_6);
+    if (getEnvStat == JNI_EDETACHED) {
+        jvm->AttachCurrentThread(&env, NULL);
+    }
+
+    jmethodID mid = getMethodID(env,"getPropertyNamesCallback","(JJ)[Ljava/lang/String;");
+    if (mid != NULL) {
+        jobjectArray names = (jobjectArray) env->CallObjectMethod(thiz, mid, (jlong)ctx,
+            (jlong)object);
+        if (env->ExceptionCheck()) {
+            env->ExceptionDescribe();
+            env->ExceptionClear();
+            names = NULL;
+        }
+        if (names != NULL) {
+            jsize len = env->GetArrayLength(names);
+            for (jsize i=0; i<len; i++) {
+                jstring name = (jstring) env->GetObjectArrayElement(names, i);
+                if (name == NULL) continue;
+                const jchar *chars = env->GetStringChars(name, NULL);
+                JSStringRef string = JSStringCreateWithCharacters(chars,
+                    env->GetStringLength(name));
+                env->ReleaseStringChars(name, chars);
+                JSPropertyNameAccumulatorAddName(propertyNames, string);
+                JSStringRelease(string);
+                env->DeleteLocalRef(name);
+            }
+            env->DeleteLocalRef(names);
+        }
+    }
+
+    if (getEnvStat == JNI_EDETACHED) {
+        jvm->DetachCurrentThread();
+    }
+}
+
+NATIVE(JSHostObject,jlong,makeHostObject) (PARAMS, jlong ctx) {
+    JSHostObject *object = new JSHostObject(env, thiz, (JSContextRef)ctx);
+    return object->getObjRef();
+}
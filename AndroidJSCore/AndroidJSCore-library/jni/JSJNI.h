@@ -37,7 +37,28 @@
 
 #include "JavaScriptCore/JavaScript.h"
 
+/* The typed array API is only exported by newer builds of JavaScriptCore.  It is bound weakly,
+   so that the library still loads against older builds, where these functions are NULL. */
+#pragma weak JSValueGetTypedArrayType
+#pragma weak JSObjectMakeTypedArray
+#pragma weak JSObjectMakeTypedArrayWithBytesNoCopy
+#pragma weak JSObjectMakeTypedArrayWithArrayBuffer
+#pragma weak JSObjectMakeTypedArrayWithArrayBufferAndOffset
+#pragma weak JSObjectGetTypedArrayBytesPtr
+#pragma weak JSObjectGetTypedArrayLength
+#pragma weak JSObjectGetTypedArrayByteLength
+#pragma weak JSObjectGetTypedArrayByteOffset
+#pragma weak JSObjectGetTypedArrayBuffer
+#pragma weak JSObjectMakeArrayBufferWithBytesNoCopy
+#pragma weak JSObjectGetArrayBufferBytesPtr
+#pragma weak JSObjectGetArrayBufferByteLength
+
 #define NATIVE(package,rt,f) extern "C" \
     rt Java_org_liquidplayer_webkit_javascriptcore_##package##_##f
 #define PARAMS __attribute__((unused))JNIEnv* env, __attribute__((unused))jobject thiz
 
+/* Creates a JNIReturnObject holding 'value' converted to 'type', which is kJSTypeBoolean,
+   kJSTypeNumber or kJSTypeString.  Any other type discards the value. */
+jobject makeConvertedReturnObject(JNIEnv* env, JSContextRef ctx, JSValueRef value,
+    JSValueRef exception, jint type);
+
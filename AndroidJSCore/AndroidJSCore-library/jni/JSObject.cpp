@@ -83,6 +83,220 @@ NATIVE(JSObject,jobject,makeArray) (PARAMS, jlong ctx, jlongArray args) {
     return out;
 }
 
+static jobject makeArrayReturnObject(JNIEnv *env, JSObjectRef objRef, JSValueRef exception) {
+    jclass ret = env->FindClass("org/liquidplayer/webkit/javascriptcore/JSValue$JNIReturnObject");
+    jmethodID cid = env->GetMethodID(ret,"<init>","()V");
+    jobject out = env->NewObject(ret, cid);
+
+    jfieldID fid = env->GetFieldID(ret , "reference", "J");
+    env->SetLongField( out, fid, (jlong)objRef );
+
+    fid = env->GetFieldID(ret , "exception", "J");
+    env->SetLongField( out, fid, (long) exception);
+
+    return out;
+}
+
+template <typename T>
+static jobject makeNumberArray(JNIEnv *env, JSContextRef ctx, const T *numbers, jsize len) {
+    JSValueRef exception = NULL;
+
+    // Numbers are not garbage collected, so the elements need no protection
+    JSValueRef* elements = new JSValueRef[len];
+    for (jsize i=0; i<len; i++) {
+        elements[i] = JSValueMakeNumber(ctx, (double) numbers[i]);
+    }
+    JSObjectRef objRef = JSObjectMakeArray(ctx, (size_t)len, (len==0)?NULL:elements, &exception);
+    JSValueProtect(ctx, objRef);
+    delete [] elements;
+
+    return makeArrayReturnObject(env, objRef, exception);
+}
+
+NATIVE(JSObject,jobject,makeArrayFromNumbers) (PARAMS, jlong ctx, jdoubleArray numbers) {
+    jsize len = env->GetArrayLength(numbers);
+    jdouble *n = env->GetDoubleArrayElements(numbers, 0);
+    jobject out = makeNumberArray<jdouble>(env, (JSContextRef) ctx, n, len);
+    env->ReleaseDoubleArrayElements(numbers, n, JNI_ABORT);
+    return out;
+}
+
+NATIVE(JSObject,jobject,makeArrayFromInts) (PARAMS, jlong ctx, jintArray numbers) {
+    jsize len = env->GetArrayLength(numbers);
+    jint *n = env->GetIntArrayElements(numbers, 0);
+    jobject out = makeNumberArray<jint>(env, (JSContextRef) ctx, n, len);
+    env->ReleaseIntArrayElements(numbers, n, JNI_ABORT);
+    return out;
+}
+
+static JSValueRef makeStringValue(JNIEnv *env, JSContextRef ctx, jobjectArray strings,
+    jsize index) {
+    jstring str = (jstring) env->GetObjectArrayElement(strings, index);
+    if (str == NULL) {
+        return JSValueMakeNull(ctx);
+    }
+    const jchar *chars = env->GetStringChars(str, NULL);
+    JSStringRef string = JSStringCreateWithCharacters(chars, env->GetStringLength(str));
+    env->ReleaseStringChars(str, chars);
+    env->DeleteLocalRef(str);
+    JSValueRef value = JSValueMakeString(ctx, string);
+    JSStringRelease(string);
+    return value;
+}
+
+/* Strings and objects are stored into the protected array as soon as they are made, so that
+   they are reachable, and need no protection of their own, while the rest are converted. */
+NATIVE(JSObject,jobject,makeArrayFromStrings) (PARAMS, jlong ctx, jobjectArray strings) {
+    JSValueRef exception = NULL;
+
+    jsize len = env->GetArrayLength(strings);
+    JSObjectRef objRef = JSObjectMakeArray((JSContextRef) ctx, 0, NULL, &exception);
+    JSValueProtect((JSContextRef) ctx, objRef);
+    for (jsize i=0; i<len && !exception; i++) {
+        JSObjectSetPropertyAtIndex((JSContextRef) ctx, objRef, (unsigned) i,
+            makeStringValue(env, (JSContextRef) ctx, strings, i), &exception);
+    }
+
+    return makeArrayReturnObject(env, objRef, exception);
+}
+
+/* Stores the values encoded in 'kinds', 'numbers', 'refs' and 'strings' into 'objRef', from
+   index 'start' on.  Each kind is a JSType, and selects which of the other arrays holds the
+   value. */
+static void setValuesAtIndex(JNIEnv *env, JSContextRef ctx, JSObjectRef objRef, jint start,
+    jintArray kinds, jdoubleArray numbers, jlongArray refs, jobjectArray strings,
+    JSValueRef *exception) {
+    jsize len = env->GetArrayLength(kinds);
+    jint *k = env->GetIntArrayElements(kinds, 0);
+    jdouble *n = env->GetDoubleArrayElements(numbers, 0);
+    jlong *r = env->GetLongArrayElements(refs, 0);
+
+    for (jsize i=0; i<len && !*exception; i++) {
+        JSValueRef value;
+        switch (k[i]) {
+            case kJSTypeNull:
+                value = JSValueMakeNull(ctx);
+                break;
+            case kJSTypeBoolean:
+                value = JSValueMakeBoolean(ctx, n[i] != 0);
+                break;
+            case kJSTypeNumber:
+                value = JSValueMakeNumber(ctx, n[i]);
+                break;
+            case kJSTypeString:
+                value = makeStringValue(env, ctx, strings, i);
+                break;
+            case kJSTypeObject:
+                value = (JSValueRef) r[i];
+                break;
+            default:
+                value = JSValueMakeUndefined(ctx);
+        }
+        JSObjectSetPropertyAtIndex(ctx, objRef, (unsigned) (start + i), value, exception);
+    }
+    env->ReleaseIntArrayElements(kinds, k, JNI_ABORT);
+    env->ReleaseDoubleArrayElements(numbers, n, JNI_ABORT);
+    env->ReleaseLongArrayElements(refs, r, JNI_ABORT);
+}
+
+NATIVE(JSObject,jobject,makeArrayFromValues) (PARAMS, jlong ctx, jintArray kinds,
+    jdoubleArray numbers, jlongArray refs, jobjectArray strings) {
+    JSValueRef exception = NULL;
+
+    JSObjectRef objRef = JSObjectMakeArray((JSContextRef) ctx, 0, NULL, &exception);
+    JSValueProtect((JSContextRef) ctx, objRef);
+    if (!exception) {
+        setValuesAtIndex(env, (JSContextRef) ctx, objRef, 0, kinds, numbers, refs, strings,
+            &exception);
+    }
+
+    return makeArrayReturnObject(env, objRef, exception);
+}
+
+NATIVE(JSObject,jobject,setElementsFromValues) (PARAMS, jlong ctx, jlong object, jint start,
+    jintArray kinds, jdoubleArray numbers, jlongArray refs, jobjectArray strings) {
+    JSValueRef exception = NULL;
+
+    setValuesAtIndex(env, (JSContextRef) ctx, (JSObjectRef) object, start, kinds, numbers,
+        refs, strings, &exception);
+
+    jclass ret = env->FindClass("org/liquidplayer/webkit/javascriptcore/JSValue$JNIReturnObject");
+    jmethodID cid = env->GetMethodID(ret,"<init>","()V");
+    jobject out = env->NewObject(ret, cid);
+
+    jfieldID fid = env->GetFieldID(ret , "exception", "J");
+    env->SetLongField( out, fid, (long) exception);
+
+    return out;
+}
+
+NATIVE(JSObject,jobject,getElementsAs) (PARAMS, jlong ctx, jlong object, jint start,
+    jobject dst, jint type) {
+    JSValueRef exception = NULL;
+
+    jsize len = env->GetArrayLength((jarray) dst);
+    switch (type) {
+        case kJSTypeBoolean: {
+            jboolean *out = env->GetBooleanArrayElements((jbooleanArray) dst, 0);
+            for (jsize i=0; i<len && !exception; i++) {
+                JSValueRef value = JSObjectGetPropertyAtIndex((JSContextRef) ctx,
+                    (JSObjectRef) object, (unsigned) (start + i), &exception);
+                if (!exception) out[i] = (jboolean) JSValueToBoolean((JSContextRef) ctx, value);
+            }
+            env->ReleaseBooleanArrayElements((jbooleanArray) dst, out, 0);
+            break;
+        }
+        case kJSTypeNumber: {
+            jdouble *out = env->GetDoubleArrayElements((jdoubleArray) dst, 0);
+            for (jsize i=0; i<len && !exception; i++) {
+                JSValueRef value = JSObjectGetPropertyAtIndex((JSContextRef) ctx,
+                    (JSObjectRef) object, (unsigned) (start + i), &exception);
+                if (!exception) out[i] = JSValueToNumber((JSContextRef) ctx, value, &exception);
+            }
+            env->ReleaseDoubleArrayElements((jdoubleArray) dst, out, 0);
+            break;
+        }
+        case kJSTypeString: {
+            for (jsize i=0; i<len && !exception; i++) {
+                JSValueRef value = JSObjectGetPropertyAtIndex((JSContextRef) ctx,
+                    (JSObjectRef) object, (unsigned) (start + i), &exception);
+                if (exception) break;
+                JSStringRef string = JSValueToStringCopy((JSContextRef) ctx, value, &exception);
+                if (!string) break;
+                jstring jstr = env->NewString((const jchar*) JSStringGetCharactersPtr(string),
+                    (jsize) JSStringGetLength(string));
+                JSStringRelease(string);
+                env->SetObjectArrayElement((jobjectArray) dst, i, jstr);
+                env->DeleteLocalRef(jstr);
+            }
+            break;
+        }
+        default: {
+            // The references are protected, and the caller is responsible for unprotecting them
+            jlong *out = env->GetLongArrayElements((jlongArray) dst, 0);
+            for (jsize i=0; i<len && !exception; i++) {
+                JSValueRef value = JSObjectGetPropertyAtIndex((JSContextRef) ctx,
+                    (JSObjectRef) object, (unsigned) (start + i), &exception);
+                if (!exception) {
+                    JSValueProtect((JSContextRef) ctx, value);
+                    out[i] = (jlong) value;
+                }
+            }
+            env->ReleaseLongArrayElements((jlongArray) dst, out, 0);
+            break;
+        }
+    }
+
+    jclass ret = env->FindClass("org/liquidplayer/webkit/javascriptcore/JSValue$JNIReturnObject");
+    jmethodID cid = env->GetMethodID(ret,"<init>","()V");
+    jobject out = env->NewObject(ret, cid);
+
+    jfieldID fid = env->GetFieldID(ret , "exception", "J");
+    env->SetLongField( out, fid, (long) exception);
+
+    return out;
+}
+
 NATIVE(JSObject,jobject,makeDate) (PARAMS, jlong ctx, jlongArray args) {
     JSValueRef exception = NULL;
 
@@ -377,6 +591,191 @@ NATIVE(JSObject,jobject,callAsFunction) (PARAMS, jlong ctx, jlong object,
     return out;
 }
 
+NATIVE(JSObject,jobject,callAsFunctionAs) (PARAMS, jlong ctx, jlong object,
+    jlong thisObject, jlongArray args, jint type) {
+    JSValueRef exception = NULL;
+
+    int i;
+    jsize len = env->GetArrayLength(args);
+    jlong *values = env->GetLongArrayElements(args, 0);
+    JSValueRef* elements = new JSValueRef[len];
+    for (i=0; i<len; i++) {
+        elements[i] = (JSValueRef) values[i];
+    }
+    env->ReleaseLongArrayElements(args, values, 0);
+
+    JSValueRef value = JSObjectCallAsFunction((JSContextRef)ctx, (JSObjectRef) object, (JSObjectRef) thisObject,
+        (size_t)len, (len==0)?NULL:elements, &exception);
+
+    delete [] elements;
+    return makeConvertedReturnObject(env, (JSContextRef)ctx, value, exception, type);
+}
+
+NATIVE(JSObject,jobject,callAsFunctionBatch) (PARAMS, jlong ctx, jlong object,
+    jlong thisObject, jobjectArray args, jlongArray results) {
+    JSValueRef exception = NULL;
+
+    jsize count = env->GetArrayLength(results);
+    jlong *out = env->GetLongArrayElements(results, 0);
+    jsize i;
+    for (i=0; i<count && !exception; i++) {
+        jlongArray row = (jlongArray) env->GetObjectArrayElement(args, i);
+        jsize len = env->GetArrayLength(row);
+        jlong *values = env->GetLongArrayElements(row, 0);
+        JSValueRef* elements = new JSValueRef[len];
+        for (int j=0; j<len; j++) {
+            elements[j] = (JSValueRef) values[j];
+        }
+        env->ReleaseLongArrayElements(row, values, JNI_ABORT);
+        env->DeleteLocalRef(row);
+
+        JSValueRef value = JSObjectCallAsFunction((JSContextRef)ctx, (JSObjectRef) object,
+            (JSObjectRef) thisObject, (size_t)len, (len==0)?NULL:elements, &exception);
+        delete [] elements;
+        if (!exception) {
+            JSValueProtect((JSContextRef) ctx, value);
+            out[i] = (long) value;
+        }
+    }
+    env->ReleaseLongArrayElements(results, out, 0);
+
+    jclass ret = env->FindClass("org/liquidplayer/webkit/javascriptcore/JSValue$JNIReturnObject");
+    jmethodID cid = env->GetMethodID(ret,"<init>","()V");
+    jobject jni = env->NewObject(ret, cid);
+
+    jfieldID fid = env->GetFieldID(ret , "exception", "J");
+    env->SetLongField( jni, fid, (long) exception);
+
+    return jni;
+}
+
+NATIVE(JSObject,jobject,callAsFunctionBatchDouble) (PARAMS, jlong ctx, jlong object,
+    jlong thisObject, jobjectArray columns, jdoubleArray results) {
+    JSValueRef exception = NULL;
+
+    jsize argc = env->GetArrayLength(columns);
+    jdoubleArray *arrays = new jdoubleArray[argc];
+    jdouble **cols = new jdouble*[argc];
+    for (int j=0; j<argc; j++) {
+        arrays[j] = (jdoubleArray) env->GetObjectArrayElement(columns, j);
+        cols[j] = env->GetDoubleArrayElements(arrays[j], 0);
+    }
+    JSValueRef* elements = new JSValueRef[argc];
+
+    jsize count = env->GetArrayLength(results);
+    jdouble *out = env->GetDoubleArrayElements(results, 0);
+    jsize i;
+    for (i=0; i<count && !exception; i++) {
+        // Numbers are not garbage collected, so the arguments need no protection
+        for (int j=0; j<argc; j++) {
+            elements[j] = JSValueMakeNumber((JSContextRef) ctx, cols[j][i]);
+        }
+        JSValueRef value = JSObjectCallAsFunction((JSContextRef)ctx, (JSObjectRef) object,
+            (JSObjectRef) thisObject, (size_t)argc, (argc==0)?NULL:elements, &exception);
+        if (!exception) {
+            out[i] = JSValueToNumber((JSContextRef) ctx, value, &exception);
+        }
+    }
+    env->ReleaseDoubleArrayElements(results, out, 0);
+
+    for (int j=0; j<argc; j++) {
+        env->ReleaseDoubleArrayElements(arrays[j], cols[j], JNI_ABORT);
+        env->DeleteLocalRef(arrays[j]);
+    }
+    delete [] cols;
+    delete [] arrays;
+    delete [] elements;
+
+    jclass ret = env->FindClass("org/liquidplayer/webkit/javascriptcore/JSValue$JNIReturnObject");
+    jmethodID cid = env->GetMethodID(ret,"<init>","()V");
+    jobject jni = env->NewObject(ret, cid);
+
+    jfieldID fid = env->GetFieldID(ret , "exception", "J");
+    env->SetLongField( jni, fid, (long) exception);
+
+    return jni;
+}
+
+NATIVE(JSObject,jlong,callAsFunctionPrepared) (PARAMS, jlong ctx, jlong object,
+    jlong thisObject, jintArray kinds, jdoubleArray numbers, jlongArray refs,
+    jobjectArray strings) {
+    JSValueRef exception = NULL;
+
+    // Slot 'argc' of each array holds the result of the previous call
+    jsize argc = env->GetArrayLength(kinds) - 1;
+    jint *k = env->GetIntArrayElements(kinds, 0);
+    jdouble *n = env->GetDoubleArrayElements(numbers, 0);
+    jlong *r = env->GetLongArrayElements(refs, 0);
+    JSValueRef* elements = new JSValueRef[argc];
+    bool* isString = new bool[argc];
+    for (int i=0; i<argc; i++) {
+        isString[i] = (k[i] == kJSTypeString);
+        switch (k[i]) {
+            case kJSTypeNull:
+                elements[i] = JSValueMakeNull((JSContextRef) ctx);
+                break;
+            case kJSTypeBoolean:
+                elements[i] = JSValueMakeBoolean((JSContextRef) ctx, n[i] != 0);
+                break;
+            case kJSTypeNumber:
+                elements[i] = JSValueMakeNumber((JSContextRef) ctx, n[i]);
+                break;
+            case kJSTypeString: {
+                jstring str = (jstring) env->GetObjectArrayElement(strings, i);
+                const jchar *chars = env->GetStringChars(str, NULL);
+                JSStringRef string = JSStringCreateWithCharacters(chars,
+                    env->GetStringLength(str));
+                env->ReleaseStringChars(str, chars);
+                env->DeleteLocalRef(str);
+                elements[i] = JSValueMakeString((JSContextRef) ctx, string);
+                JSValueProtect((JSContextRef) ctx, elements[i]);
+                JSStringRelease(string);
+                break;
+            }
+            case kJSTypeObject:
+                elements[i] = (JSValueRef) r[i];
+                break;
+            default:
+                elements[i] = JSValueMakeUndefined((JSContextRef) ctx);
+        }
+    }
+    if (r[argc]) {
+        JSValueUnprotect((JSContextRef) ctx, (JSValueRef) r[argc]);
+    }
+    env->ReleaseIntArrayElements(kinds, k, JNI_ABORT);
+    env->ReleaseDoubleArrayElements(numbers, n, JNI_ABORT);
+    env->ReleaseLongArrayElements(refs, r, JNI_ABORT);
+
+    JSValueRef value = JSObjectCallAsFunction((JSContextRef)ctx, (JSObjectRef) object,
+        (JSObjectRef) thisObject, (size_t)argc, (argc==0)?NULL:elements, &exception);
+
+    for (int i=0; i<argc; i++) {
+        if (isString[i]) {
+            JSValueUnprotect((JSContextRef) ctx, elements[i]);
+        }
+    }
+    delete [] isString;
+    delete [] elements;
+
+    jint type = kJSTypeUndefined;
+    jdouble number = 0;
+    jlong result = 0;
+    if (!exception) {
+        JSValueProtect((JSContextRef) ctx, value);
+        type = JSValueGetType((JSContextRef) ctx, value);
+        // Objects are left for the caller to convert, as valueOf() may have side effects
+        if (type != kJSTypeObject) {
+            number = JSValueToNumber((JSContextRef) ctx, value, NULL);
+        }
+        result = (long) value;
+    }
+    env->SetIntArrayRegion(kinds, argc, 1, &type);
+    env->SetDoubleArrayRegion(numbers, argc, 1, &number);
+    env->SetLongArrayRegion(refs, argc, 1, &result);
+
+    return (long) exception;
+}
+
 NATIVE(JSObject,jboolean,isConstructor) (PARAMS, jlong ctx, jlong object) {
     return (jboolean) JSObjectIsConstructor((JSContextRef)ctx, (JSObjectRef)object);
 }
@@ -436,3 +835,30 @@ NATIVE(JSObject,jlongArray,getPropertyNames) (PARAMS,jlong propertyNameArray) {
 NATIVE(JSObject,void,releasePropertyNames) (PARAMS, jlong propertyNameArray) {
     JSPropertyNameArrayRelease((JSPropertyNameArrayRef)propertyNameArray);
 }
+
+NATIVE(JSObject,jobjectArray,copyPropertyNameStrings) (PARAMS, jlong ctx, jlong object) {
+    JSPropertyNameArrayRef names = JSObjectCopyPropertyNames((JSContextRef)ctx,
+        (JSObjectRef)object);
+    size_t count = JSPropertyNameArrayGetCount(names);
+    jobjectArray retArray = env->NewObjectArray((jsize) count, env->FindClass("java/lang/String"),
+        NULL);
+    for (size_t i=0; i<count; i++) {
+        JSStringRef name = JSPropertyNameArrayGetNameAtIndex(names, i);
+        jstring jstr = env->NewString((const jchar*) JSStringGetCharactersPtr(name),
+            (jsize) JSStringGetLength(name));
+        env->SetObjectArrayElement(retArray, (jsize) i, jstr);
+        env->DeleteLocalRef(jstr);
+    }
+    JSPropertyNameArrayRelease(names);
+
+    return retArray;
+}
+
+NATIVE(JSObject,jint,countPropertyNames) (PARAMS, jlong ctx, jlong object) {
+    JSPropertyNameArrayRef names = JSObjectCopyPropertyNames((JSContextRef)ctx,
+        (JSObjectRef)object);
+    jint count = (jint) JSPropertyNameArrayGetCount(names);
+    JSPropertyNameArrayRelease(names);
+
+    return count;
+}
@@ -0,0 +1,166 @@
+//
+// JSTypedArray.cpp
+// AndroidJSCore project
+//
+// https://github.com/ericwlange/AndroidJSCore/
+//
+// Created by Eric Lange
+//
+/*
+ Copyright (c) 2014-2016 Eric Lange. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+#include <limits>
+
+#include "JSJNI.h"
+
+template <typename T> static T fromNumber(double number) {
+    // Integer elements are converted through a 64-bit integer, so that unsigned values wrap
+    // into the signed Java types rather than overflow
+    return std::numeric_limits<T>::is_integer ? (T) (jlong) number : (T) number;
+}
+
+template <typename T> static double toNumber(T element, bool isUnsigned) {
+    if (isUnsigned && std::numeric_limits<T>::is_integer) {
+        return (double) ((unsigned long long) (jlong) element & (~0ULL >> (64 - 8 * sizeof(T))));
+    }
+    return (double) element;
+}
+
+template <typename T, typename A>
+static JSValueRef getElements(JNIEnv *env, JSContextRef ctx, JSObjectRef object, jint index,
+    jobject dst, jint length, void (JNIEnv::*setRegion)(A, jsize, jsize, const T*))
+{
+    JSValueRef exception = NULL;
+    T *buffer = new T[length];
+    for (jint i=0; i<length && !exception; i++) {
+        JSValueRef value = JSObjectGetPropertyAtIndex(ctx, object, (unsigned) (index + i),
+            &exception);
+        if (!exception) {
+            buffer[i] = fromNumber<T>(JSValueToNumber(ctx, value, &exception));
+        }
+    }
+    if (!exception) {
+        (env->*setRegion)((A) dst, 0, length, buffer);
+    }
+    delete [] buffer;
+    return exception;
+}
+
+template <typename T, typename A>
+static JSValueRef setElements(JNIEnv *env, JSContextRef ctx, JSObjectRef object, jint index,
+    jobject src, jint length, bool isUnsigned, void (JNIEnv::*getRegion)(A, jsize, jsize, T*))
+{
+    JSValueRef exception = NULL;
+    T *buffer = new T[length];
+    (env->*getRegion)((A) src, 0, length, buffer);
+    for (jint i=0; i<length && !exception; i++) {
+        // Numbers are not garbage collected, so need no protection
+        JSValueRef value = JSValueMakeNumber(ctx, toNumber<T>(buffer[i], isUnsigned));
+        JSObjectSetPropertyAtIndex(ctx, object, (unsigned) (index + i), value, &exception);
+    }
+    delete [] buffer;
+    return exception;
+}
+
+static jobject makeReturnObject(JNIEnv *env, JSValueRef exception) {
+    jclass ret = env->FindClass("org/liquidplayer/webkit/javascriptcore/JSValue$JNIReturnObject");
+    jmethodID cid = env->GetMethodID(ret,"<init>","()V");
+    jobject out = env->NewObject(ret, cid);
+
+    jfieldID fid = env->GetFieldID(ret , "exception", "J");
+    env->SetLongField( out, fid, (long) exception);
+
+    return out;
+}
+
+NATIVE(JSTypedArray,jobject,getElements) (PARAMS, jlong ctxRef, jlong objRef, jint index,
+    jobject dst, jint length) {
+    JSContextRef ctx = (JSContextRef) ctxRef;
+    JSObjectRef object = (JSObjectRef) objRef;
+    JSValueRef exception = NULL;
+
+    if (env->IsInstanceOf(dst, env->FindClass("[B")))
+        exception = getElements<jbyte,jbyteArray>(env, ctx, object, index, dst, length,
+            &JNIEnv::SetByteArrayRegion);
+    else if (env->IsInstanceOf(dst, env->FindClass("[S")))
+        exception = getElements<jshort,jshortArray>(env, ctx, object, index, dst, length,
+            &JNIEnv::SetShortArrayRegion);
+    else if (env->IsInstanceOf(dst, env->FindClass("[I")))
+        exception = getElements<jint,jintArray>(env, ctx, object, index, dst, length,
+            &JNIEnv::SetIntArrayRegion);
+    else if (env->IsInstanceOf(dst, env->FindClass("[J")))
+        exception = getElements<jlong,jlongArray>(env, ctx, object, index, dst, length,
+            &JNIEnv::SetLongArrayRegion);
+    else if (env->IsInstanceOf(dst, env->FindClass("[F")))
+        exception = getElements<jfloat,jfloatArray>(env, ctx, object, index, dst, length,
+            &JNIEnv::SetFloatArrayRegion);
+    else if (env->IsInstanceOf(dst, env->FindClass("[D")))
+        exception = getElements<jdouble,jdoubleArray>(env, ctx, object, index, dst, length,
+            &JNIEnv::SetDoubleArrayRegion);
+
+    return makeReturnObject(env, exception);
+}
+
+NATIVE(JSTypedArray,jobject,setElements) (PARAMS, jlong ctxRef, jlong objRef, jint index,
+    jobject src, jint length, jboolean isUnsigned) {
+    JSContextRef ctx = (JSContextRef) ctxRef;
+    JSObjectRef object = (JSObjectRef) objRef;
+    JSValueRef exception = NULL;
+
+    if (env->IsInstanceOf(src, env->FindClass("[B")))
+        exception = setElements<jbyte,jbyteArray>(env, ctx, object, index, src, length,
+            isUnsigned, &JNIEnv::GetByteArrayRegion);
+    else if (env->IsInstanceOf(src, env->FindClass("[S")))
+        exception = setElements<jshort,jshortArray>(env, ctx, object, index, src, length,
+            isUnsigned, &JNIEnv::GetShortArrayRegion);
+    else if (env->IsInstanceOf(src, env->FindClass("[I")))
+        exception = setElements<jint,jintArray>(env, ctx, object, index, src, length,
+            isUnsigned, &JNIEnv::GetIntArrayRegion);
+    else if (env->IsInstanceOf(src, env->FindClass("[J")))
+        exception = setElements<jlong,jlongArray>(env, ctx, object, index, src, length,
+            isUnsigned, &JNIEnv::GetLongArrayRegion);
+    else if (env->IsInstanceOf(src, env->FindClass("[F")))
+        exception = setElements<jfloat,jfloatArray>(env, ctx, object, index, src, length,
+            isUnsigned, &JNIEnv::GetFloatArrayRegion);
+    else if (env->IsInstanceOf(src, env->FindClass("[D")))
+        exception = setElements<jdouble,jdoubleArray>(env, ctx, object, index, src, length,
+            isUnsigned, &JNIEnv::GetDoubleArrayRegion);
+
+    return makeReturnObject(env, exception);
+}
+
+/* Reading or writing a number at an index of a typed array cannot throw, so these return and
+   take primitives directly rather than through a JNIReturnObject. */
+NATIVE(JSTypedArray,jdouble,getNumberAtIndex) (PARAMS, jlong ctx, jlong object, jint index) {
+    JSValueRef value = JSObjectGetPropertyAtIndex((JSContextRef) ctx, (JSObjectRef) object,
+        (unsigned) index, NULL);
+    return (jdouble) JSValueToNumber((JSContextRef) ctx, value, NULL);
+}
+
+NATIVE(JSTypedArray,void,setNumberAtIndex) (PARAMS, jlong ctx, jlong object, jint index,
+    jdouble number) {
+    JSObjectSetPropertyAtIndex((JSContextRef) ctx, (JSObjectRef) object, (unsigned) index,
+        JSValueMakeNumber((JSContextRef) ctx, number), NULL);
+}
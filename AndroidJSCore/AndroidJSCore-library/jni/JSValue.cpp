@@ -248,6 +248,49 @@ NATIVE(JSValue,jobject,toStringCopy) (PARAMS, jlong ctxRef, jlong valueRef)
     return out;
 }
 
+jobject makeConvertedReturnObject(JNIEnv* env, JSContextRef ctx, JSValueRef value,
+    JSValueRef exception, jint type)
+{
+    jclass ret = env->FindClass("org/liquidplayer/webkit/javascriptcore/JSValue$JNIReturnObject");
+    jmethodID cid = env->GetMethodID(ret,"<init>","()V");
+    jobject out = env->NewObject(ret, cid);
+
+    if (!exception) {
+        switch (type) {
+            case kJSTypeBoolean: {
+                jfieldID fid = env->GetFieldID(ret , "bool", "Z");
+                env->SetBooleanField( out, fid, (jboolean) JSValueToBoolean(ctx, value));
+                break;
+            }
+            case kJSTypeNumber: {
+                jdouble dret = JSValueToNumber(ctx, value, &exception);
+                jfieldID fid = env->GetFieldID(ret , "number", "D");
+                env->SetDoubleField( out, fid, dret);
+                break;
+            }
+            case kJSTypeString: {
+                JSStringRef string = JSValueToStringCopy(ctx, value, &exception);
+                if (string) {
+                    jstring jstr = env->NewString((const jchar*) JSStringGetCharactersPtr(string),
+                        (jsize) JSStringGetLength(string));
+                    JSStringRelease(string);
+                    jfieldID fid = env->GetFieldID(ret , "string", "Ljava/lang/String;");
+                    env->SetObjectField( out, fid, jstr);
+                    env->DeleteLocalRef(jstr);
+                }
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    jfieldID fid = env->GetFieldID(ret , "exception", "J");
+    env->SetLongField( out, fid, (long) exception);
+
+    return out;
+}
+
 NATIVE(JSValue,jobject,toObject) (PARAMS, jlong ctxRef, jlong valueRef)
 {
     JSValueRef exception = NULL;
@@ -3,6 +3,9 @@ package org.liquidplayer.webkit.javascriptcore;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 import static org.junit.Assert.*;
 import static org.hamcrest.Matchers.*;
 
@@ -67,6 +70,74 @@ public class JSArrayBufferTest {
         assertThat(new JSInt32Array(buf3).get(0),is(42));
     }
 
+    @Test
+    public void testAsByteBuffer() throws Exception {
+        if (!JSArrayBuffer.isByteBufferSupported()) {
+            try {
+                arrayBuffer.asByteBuffer();
+                fail();
+            } catch (UnsupportedOperationException e) {
+                // expected
+            }
+            return;
+        }
+        ByteBuffer bb = arrayBuffer.asByteBuffer().order(ByteOrder.nativeOrder());
+        assertTrue(bb.isDirect());
+        assertThat(bb.capacity(),is(BYTE_LENGTH));
+
+        JSInt32Array array = new JSInt32Array(arrayBuffer);
+        array.set(1,42);
+        assertThat(bb.getInt(4),is(42));
+        bb.putInt(8,69);
+        assertThat(array.get(2),is(69));
+
+        assertThat(new JSArrayBuffer(context,0).asByteBuffer().capacity(),is(0));
+
+        arrayBuffer.releaseByteBuffer();
+        bb = arrayBuffer.asByteBuffer().order(ByteOrder.nativeOrder());
+        assertThat(bb.getInt(8),is(69));
+        arrayBuffer.releaseByteBuffer();
+        arrayBuffer.releaseByteBuffer();
+    }
+
+    @Test
+    public void testWrapByteBuffer() throws Exception {
+        ByteBuffer bb = ByteBuffer.allocateDirect(16).order(ByteOrder.nativeOrder());
+        if (!JSArrayBuffer.isWrapSupported()) {
+            try {
+                new JSArrayBuffer(context,bb);
+                fail();
+            } catch (UnsupportedOperationException e) {
+                // expected
+            }
+            return;
+        }
+        bb.putInt(0,42);
+        JSArrayBuffer wrapped = new JSArrayBuffer(context,bb);
+        assertThat(wrapped.byteLength(),is(16));
+
+        JSInt32Array array = new JSInt32Array(wrapped);
+        assertThat(array.get(0),is(42));
+        array.set(3,69);
+        assertThat(bb.getInt(12),is(69));
+
+        bb.position(8);
+        assertThat(new JSArrayBuffer(context,bb).byteLength(),is(8));
+
+        try {
+            new JSArrayBuffer(context,ByteBuffer.allocate(16));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new JSArrayBuffer(context,bb.asReadOnlyBuffer());
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
     @org.junit.After
     public void shutDown() {
         Runtime.getRuntime().gc();
@@ -737,4 +737,279 @@ public class JSArrayTest {
 
     }
 
-}
\ No newline at end of file
+    @org.junit.Test
+    public void testJSArrayBulkBuilders() throws Exception {
+        JSContext context = new JSContext();
+
+        JSArray<Double> doubles = JSArray.ofDoubles(context, new double[] {1.5, -2, Double.NaN});
+        assertThat(doubles.size(),is(3));
+        assertThat(doubles.get(0),is(1.5));
+        assertTrue(doubles.get(2).isNaN());
+
+        JSArray<Integer> ints = JSArray.ofInts(context, new int[] {7, -8});
+        assertEquals(Arrays.asList(7,-8),ints);
+
+        JSArray<String> strings = JSArray.ofStrings(context, new String[] {"a", null, "\u00e9"});
+        assertThat(strings.get(0),is("a"));
+        assertTrue(strings.propertyAtIndex(1).isNull());
+        assertThat(strings.get(2),is("\u00e9"));
+
+        JSObject object = new JSObject(context);
+        Object [] mixed = { null, true, 1.1f, 2L, "three", object, Arrays.asList(4,5) };
+        JSArray<JSValue> array = new JSArray<>(context, mixed, JSValue.class);
+        assertThat(array.size(),is(7));
+        assertTrue(array.get(0).isNull());
+        assertTrue(array.get(1).toBoolean());
+        assertThat(array.get(2).toNumber(),is(1.1));
+        assertThat(array.get(3).toNumber(),is(2.0));
+        assertThat(array.get(4).toString(),is("three"));
+        assertTrue(array.get(5).isStrictEqual(object));
+        assertThat(array.get(6).toJSArray().size(),is(2));
+
+        assertThat(JSArray.ofDoubles(context, new double[0]).size(),is(0));
+    }
+
+    @org.junit.Test
+    @SuppressWarnings("unchecked")
+    public void testJSArrayBulkExtraction() throws Exception {
+        JSContext context = new JSContext();
+        JSArray<JSValue> array = (JSArray<JSValue>) context.evaluateScript(
+                "[1, 2.5, '3', true, null]").toJSArray();
+
+        assertArrayEquals(new double[] {1, 2.5, 3, 1, 0}, array.toDoubleArray(), 0);
+        assertArrayEquals(new int[] {1, 2, 3, 1, 0}, array.toIntArray());
+        assertArrayEquals(new String[] {"1", "2.5", "3", "true", "null"}, array.toStringArray());
+        assertEquals(Arrays.asList(1.0, 2.5, 3.0, 1.0, 0.0), array.toList(Double.class));
+        assertEquals(Arrays.asList(true, true, true, true, false), array.toList(Boolean.class));
+
+        List<JSValue> values = array.toList(JSValue.class);
+        assertThat(values.size(),is(5));
+        assertTrue(values.get(4).isNull());
+        assertThat(values.get(2).toString(),is("3"));
+
+        JSArray<Integer> ints = new JSArray<>(context, Arrays.asList(1,2,3,4,5), Integer.class);
+        assertArrayEquals(new int[] {2, 3}, ((JSArray<Integer>) ints.subList(1,3)).toIntArray());
+        assertArrayEquals(new Integer[] {1,2,3,4,5}, ints.toArray());
+    }
+
+    @org.junit.Test
+    public void testJSArraySnapshotIterator() throws Exception {
+        JSContext context = new JSContext();
+        int [] values = new int[1000];
+        for (int i=0; i<values.length; i++) values[i] = i;
+        JSArray<Integer> array = JSArray.ofInts(context, values);
+
+        int count = 0;
+        Iterator<Integer> it = array.snapshotIterator();
+        while (it.hasNext()) {
+            assertThat(it.next(),is(count++));
+        }
+        assertThat(count,is(1000));
+
+        it = array.subList(10,20).iterator();
+        Iterator<Integer> snapshot = ((JSArray<Integer>) array.subList(10,20)).snapshotIterator(3);
+        while (it.hasNext()) {
+            assertEquals(it.next(),snapshot.next());
+        }
+        assertFalse(snapshot.hasNext());
+
+        snapshot = array.snapshotIterator(10);
+        snapshot.next();
+        array.add(1000);
+        for (int i=1; i<10; i++) snapshot.next();
+        try {
+            snapshot.next();
+            fail();
+        } catch (java.util.ConcurrentModificationException e) {
+            // expected
+        }
+    }
+
+    @org.junit.Test
+    public void testJSArrayBulkCollectionMethods() throws Exception {
+        JSContext context = new JSContext();
+        JSArray<Integer> ints = JSArray.ofInts(context, new int[] {1, 2, 3, 2, 1, 4});
+        assertThat(ints.indexOf(2),is(1));
+        assertThat(ints.lastIndexOf(2),is(3));
+        assertThat(ints.indexOf(2.0),is(-1));
+        assertTrue(ints.containsAll(Arrays.asList(4, 3)));
+        assertThat(ints.hashCode(),is(Arrays.asList(1, 2, 3, 2, 1, 4).hashCode()));
+
+        assertTrue(ints.removeAll(Arrays.asList(2, 4)));
+        assertEquals(Arrays.asList(1, 3, 1), ints);
+        assertFalse(ints.removeAll(Arrays.asList(7)));
+        assertTrue(ints.retainAll(Arrays.asList(1)));
+        assertEquals(Arrays.asList(1, 1), ints);
+
+        JSArray<JSValue> values = JSArray.of(context, "a", 1, "1", true);
+        assertThat(values.indexOf(1),is(1));
+        assertThat(values.lastIndexOf(1),is(3));
+        // 1 == "1" in JavaScript, so both are retained
+        assertFalse(values.subList(1, 3).retainAll(Arrays.asList("1")));
+        assertThat(values.size(),is(4));
+        assertTrue(values.removeAll(Arrays.asList("a")));
+        assertThat(values.size(),is(3));
+
+        JSArray<Integer> range = JSArray.ofInts(context, new int[] {0, 1, 2, 3, 4, 5});
+        assertThat(range.subList(2, 5).indexOf(4),is(2));
+        range.subList(2, 5).removeAll(Arrays.asList(3));
+        assertEquals(Arrays.asList(0, 1, 2, 4, 5), range);
+        range.subList(1, 3).clear();
+        assertEquals(Arrays.asList(0, 4, 5), range);
+        range.clear();
+        assertTrue(range.isEmpty());
+    }
+
+    @org.junit.Test
+    public void testJSArrayCallbackTrampoline() throws Exception {
+        JSContext context = new JSContext();
+        final JSArray<Integer> ints = JSArray.ofInts(context, new int[] {3, 1, 2});
+        final int [] sum = new int[] {0};
+        ints.forEach(new JSArray.ForEachCallback<Integer>() {
+            @Override
+            public void callback(Integer integer, int i, JSArray<Integer> jsArray) {
+                assertSame(ints, jsArray);
+                sum[0] += integer * (i + 1);
+            }
+        });
+        assertThat(sum[0],is(3 + 2 + 6));
+        JSFunction trampoline = context.callbackTrampoline();
+        assertTrue(ints.some(new JSArray.EachBooleanCallback<Integer>() {
+            @Override
+            public boolean callback(Integer integer, int i, JSArray<Integer> jsArray) {
+                return integer == 2;
+            }
+        }));
+        assertSame(trampoline, context.callbackTrampoline());
+        assertThat(ints.map(new JSArray.MapCallback<Integer>() {
+            @Override
+            public JSValue callback(Integer integer, int i, JSArray<Integer> jsArray) {
+                return new JSValue(jsArray.getContext(), integer * 10);
+            }
+        }).get(2).toNumber().intValue(),is(20));
+        assertThat(ints.reduce(new JSArray.ReduceCallback() {
+            @Override
+            public JSValue callback(JSValue previousValue, JSValue currentValue, int i,
+                                    JSArray<JSValue> jsArray) {
+                return new JSValue(currentValue.getContext(),
+                        previousValue.toNumber() + currentValue.toNumber());
+            }
+        }, 0).toNumber().intValue(),is(6));
+        ints.sort(new JSArray.SortCallback<Integer>() {
+            @Override
+            public double callback(Integer a, Integer b) {
+                return b - a;
+            }
+        });
+        assertEquals(Arrays.asList(3, 2, 1), ints);
+
+        // The trampoline must not be callable with an arbitrary 'this'
+        context.property("trampoline", trampoline);
+        context.evaluateScript("var threw = false; try { trampoline(1); } catch (e) { threw = true; }");
+        assertTrue(context.property("threw").toBoolean());
+    }
+
+    @org.junit.Test
+    public void testJSArraySortAndReduceInJava() throws Exception {
+        JSContext context = new JSContext();
+        JSArray<Integer> ints = JSArray.ofInts(context, new int[] {5, 3, 9, 1, 7});
+        assertSame(ints, ints.sortInJava(null));
+        assertEquals(Arrays.asList(1, 3, 5, 7, 9), ints);
+        ((JSArray<Integer>) ints.subList(1, 4)).sortInJava(new java.util.Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return b - a;
+            }
+        });
+        assertEquals(Arrays.asList(1, 7, 5, 3, 9), ints);
+        context.property("ints", ints);
+        assertThat(context.evaluateScript("typeof ints[1]").toString(),is("number"));
+
+        int sum = ints.reduceInJava(new JSArray.AccumulateCallback<Integer, Integer>() {
+            @Override
+            public Integer callback(Integer previousValue, Integer currentValue, int index) {
+                return previousValue + currentValue * index;
+            }
+        }, 0);
+        assertThat(sum,is(7 + 10 + 9 + 36));
+
+        JSArray<String> strings = JSArray.ofStrings(context, new String[] {"pear", "fig", "apple"});
+        strings.sortInJava(null);
+        assertEquals(Arrays.asList("apple", "fig", "pear"), strings);
+        context.property("strings", strings);
+        assertThat(context.evaluateScript("typeof strings[0]").toString(),is("string"));
+
+        JSArray<JSValue> values = JSArray.of(context, "b", 2, true);
+        values.sortInJava(new java.util.Comparator<JSValue>() {
+            @Override
+            public int compare(JSValue a, JSValue b) {
+                return a.toString().compareTo(b.toString());
+            }
+        });
+        assertThat(values.get(0).toNumber().intValue(),is(2));
+        assertTrue(values.get(2).isBoolean());
+        // Only the order changes: the elements are not replaced by their converted keys
+        JSArray<Integer> fractions = new JSArray<>(context, new Object[] {2.5, 1.5, 0.5},
+                Integer.class);
+        fractions.sortInJava(null);
+        context.property("fractions", fractions);
+        assertThat(context.evaluateScript("fractions.join()").toString(),is("0.5,1.5,2.5"));
+    }
+
+    @org.junit.Test
+    public void testJSArraySpliterator() throws Exception {
+        if (android.os.Build.VERSION.SDK_INT < 24) return;
+        JSContext context = new JSContext();
+        int [] values = new int[1000];
+        for (int i=0; i<values.length; i++) values[i] = i;
+        JSArray<Integer> ints = JSArray.ofInts(context, values);
+
+        java.util.Spliterator<Integer> spliterator = ints.spliterator();
+        assertThat(spliterator.estimateSize(),is(1000L));
+        assertNotNull(spliterator.trySplit());
+        ints.set(999, -1);
+        final int [] last = new int[] {0};
+        spliterator.forEachRemaining(new java.util.function.Consumer<Integer>() {
+            @Override
+            public void accept(Integer integer) {
+                last[0] = integer;
+            }
+        });
+        // The spliterator works on the snapshot taken when it was created
+        assertThat(last[0],is(999));
+
+        long sum = ints.parallelStream().mapToLong(new java.util.function.ToLongFunction<Integer>() {
+            @Override
+            public long applyAsLong(Integer integer) {
+                return integer;
+            }
+        }).sum();
+        assertThat(sum,is(999L * 1000 / 2 - 1000));
+        assertThat(ints.subList(10, 20).stream().count(),is(10L));
+    }
+
+    @org.junit.Test
+    public void testJSArrayNestedSubList() throws Exception {
+        JSContext context = new JSContext();
+        JSArray<Integer> ints = JSArray.ofInts(context, new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+        JSArray<Integer> outer = (JSArray<Integer>) ints.subList(1, 9);
+        JSArray<Integer> inner = (JSArray<Integer>) outer.subList(2, 6);
+        JSArray<Integer> innermost = (JSArray<Integer>) inner.subList(1, 3);
+
+        // Views of views refer directly to the top-level array
+        assertSame(ints, inner.mSuperList);
+        assertSame(ints, innermost.mSuperList);
+        assertEquals(Arrays.asList(3, 4, 5, 6), inner);
+        assertEquals(Arrays.asList(4, 5), innermost);
+
+        innermost.set(0, 40);
+        assertThat(ints.get(4),is(40));
+        assertThat(outer.get(3),is(40));
+
+        inner.remove(0);
+        assertEquals(Arrays.asList(0, 1, 2, 40, 5, 6, 7, 8, 9), ints);
+        assertThat(outer.size(),is(7));
+        assertThat(inner.size(),is(3));
+        assertEquals(Arrays.asList(5, 6), innermost);
+    }
+}
@@ -158,6 +158,39 @@ public class JSContextTest {
         context.garbageCollect();
     }
 
+    @org.junit.Test
+    public void testJSContextEvaluatePrimitives() throws Exception {
+        JSContext context = new JSContext();
+
+        assertEquals(6.0, context.evaluateDouble("1 + 2 + 3"), 0.0);
+        assertEquals(12.0, context.evaluateDouble("'12'"), 0.0);
+        assertTrue(Double.isNaN(context.evaluateDouble("undefined")));
+        assertEquals("foobar", context.evaluateString("'foo' + 'bar'"));
+        assertEquals("1,2,3", context.evaluateString("[1,2,3]"));
+        assertEquals("\u00e9t\u00e9", context.evaluateString("'\\u00e9t\\u00e9'"));
+        assertTrue(context.evaluateBoolean("1 < 2"));
+        assertFalse(context.evaluateBoolean("''"));
+
+        context.evaluateVoid("var counter = 0;");
+        for (int i=0; i<10; i++) {
+            context.evaluateVoid("counter++;");
+        }
+        assertEquals(10.0, context.evaluateDouble("counter"), 0.0);
+
+        try {
+            context.evaluateVoid("does_not_exist();");
+            fail();
+        } catch (JSException e) {
+            // expected
+        }
+        try {
+            context.evaluateDouble("({valueOf: function() { throw 'no'; }})");
+            fail();
+        } catch (JSException e) {
+            // expected
+        }
+    }
+
     Exception thrownInMainThread = null;
 
     @org.junit.Test
@@ -141,6 +141,46 @@ public class JSDataViewTest {
         assertTrue(view.getUint8(1).equals((byte)6));
     }
 
+    @Test
+    public void testMirror() throws Exception {
+        JSArrayBuffer buffer = new JSArrayBuffer(context,16);
+        JSDataView view = new JSDataView(buffer,4,8);
+        view.setInt32(0,-42,true);
+        view.setFloat32(4,1.5f);
+
+        JSDataView.Mirror mirror = view.mirror();
+        assertEquals(8,mirror.byteLength());
+        assertEquals(-42,mirror.getInt32(0,true));
+        assertEquals(0xffffffd6L,mirror.getUint32(0,true));
+        assertEquals(1.5f,mirror.getFloat32(4),0);
+
+        mirror.setUint16(0,0xfffe);
+        mirror.setFloat64(0,Math.PI,true);
+        mirror.flush();
+        assertEquals(Math.PI,view.getFloat64(0,true),0);
+
+        view.setUint8(7,(byte)0x80);
+        mirror.refresh();
+        assertEquals(0x80,mirror.getUint8(7));
+
+        try {
+            mirror.setInt32(6,0);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+
+        // Bytes JavaScript changes between two mirror writes survive the flush
+        mirror.refresh();
+        mirror.setUint8(0,1);
+        view.setUint8(2,(byte)2);
+        mirror.setUint8(4,3);
+        mirror.flush();
+        assertEquals(1,view.getUint8(0).intValue());
+        assertEquals(2,view.getUint8(2).intValue());
+        assertEquals(3,view.getUint8(4).intValue());
+    }
+
     @org.junit.After
     public void shutDown() {
         Runtime.getRuntime().gc();
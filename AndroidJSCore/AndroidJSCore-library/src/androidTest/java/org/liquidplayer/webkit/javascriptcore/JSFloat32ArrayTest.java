@@ -279,4 +279,39 @@ public class JSFloat32ArrayTest {
             assertThat(exception,is(true));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testJSFloat32ArrayBulk() throws Exception {
+        JSFloat32Array array = new JSFloat32Array(context,8);
+        float [] src = new float[] {0.5f, 1.5f, 2.5f, 3.5f};
+        array.set(src, 2, 4);
+        assertEquals(Float.valueOf(0f), array.get(1));
+        assertEquals(Float.valueOf(0.5f), array.get(2));
+        assertEquals(Float.valueOf(3.5f), array.get(5));
+
+        float [] dst = new float[6];
+        array.get(dst, 1, 6);
+        assertArrayEquals(new float[] {0f, 0.5f, 1.5f, 2.5f, 3.5f, 0f}, dst, 0f);
+
+        // Sublists are offset into the same array
+        JSFloat32Array subList = array.subList(2,6);
+        dst = new float[2];
+        subList.get(dst, 1, 2);
+        assertArrayEquals(new float[] {1.5f, 2.5f}, dst, 0f);
+        subList.set(new float[] {9f}, 3, 1);
+        assertEquals(Float.valueOf(9f), array.get(5));
+
+        try {
+            array.get(new float[4], 6, 4);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            array.set(new float[2], 0, 4);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+}
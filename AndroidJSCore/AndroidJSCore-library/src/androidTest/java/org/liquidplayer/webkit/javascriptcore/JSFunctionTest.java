@@ -1,5 +1,8 @@
 package org.liquidplayer.webkit.javascriptcore;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 public class JSFunctionTest {
@@ -318,6 +321,17 @@ public class JSFunctionTest {
                         .isInstanceOfConstructor(constructorFunction));
         assertFalse(context.evaluateScript("new constructorObject(12)")
                         .isInstanceOfConstructor(constructorFunction));
+        assertTrue(context.evaluateScript(
+                "Object.getPrototypeOf(new constructorObjectJava(13)) === " +
+                "Object.getPrototypeOf(constructorObjectJava)").toBoolean());
+        assertFalse(context.evaluateScript(
+                "new constructorObjectJava(14).hasOwnProperty('myValue')").toBoolean());
+        assertEquals("[object Object]",
+                context.evaluateScript("String(new constructorObjectJava(15))").toString());
+        context.property("testFunctionJava", new TestFunction(context));
+        assertEquals("[object Object]",
+                context.evaluateScript("String(new testFunctionJava(16))").toString());
+        assertFalse(context.evaluateScript("'call' in new testFunctionJava(17)").toBoolean());
 
         context.property("functx", new JSFunction(context,"functionBody") {
             @SuppressWarnings("unused")
@@ -411,6 +425,73 @@ public class JSFunctionTest {
         assertEquals(string1,string2);
     }
 
+    @org.junit.Test
+    public void testJSFunctionZombies() throws Exception {
+        JSContext context = new JSContext();
+
+        // Host functions and constructed instances must survive the loss of their Java
+        // references for as long as JavaScript can reach them
+        context.property("zombieFunc", new JSFunction(context,"zombieFunc") {
+            @SuppressWarnings("unused")
+            public Integer zombieFunc() {
+                return 7;
+            }
+        });
+        context.property("constructorObjectJava", new ConstructorFunction(context));
+        context.evaluateScript("var instance = new constructorObjectJava(8);");
+        for (int i=0; i<100; i++) {
+            new JSFunction(context,"shortLived") {
+                @SuppressWarnings("unused")
+                public Integer shortLived() {
+                    return 9;
+                }
+            }.call();
+        }
+        for (int i=0; i<3; i++) {
+            Runtime.getRuntime().gc();
+            System.runFinalization();
+            context.garbageCollect();
+        }
+        assertTrue(context.evaluateScript("zombieFunc()").isStrictEqual(7));
+        assertTrue(context.evaluateScript("instance.myValue()").isStrictEqual(8));
+        assertTrue(context.evaluateScript("new constructorObjectJava(10).myValue()")
+                .isStrictEqual(10));
+    }
+
+    @org.junit.Test
+    public void testJSFunctionZombiesReclaimed() throws Exception {
+        JSContext context = new JSContext();
+        context.evaluateScript("var held = [];");
+        JSFunction push = context.property("held").toObject().property("push").toFunction();
+        for (int i=0; i<100; i++) {
+            push.call(context.property("held").toObject(), new JSFunction(context,"held") {
+                @SuppressWarnings("unused")
+                public Integer held() {
+                    return 11;
+                }
+            });
+        }
+        // Read one back into Java, and drop it again
+        assertNotNull(context.evaluateScript("held[0]").toObject());
+        for (int i=0; i<3; i++) {
+            Runtime.getRuntime().gc();
+            System.runFinalization();
+        }
+        context.evaluateScript("0");
+        int zombies = context.zombies.size();
+        int objects = context.objects.size();
+        assertTrue(zombies > 0);
+
+        context.evaluateScript("held = null;");
+        for (int i=0; i<3; i++) {
+            context.garbageCollect();
+            // Waits for the collection, which runs on the context's thread
+            context.evaluateScript("0");
+        }
+        assertTrue(context.zombies.size() < zombies);
+        assertTrue(context.objects.size() < objects);
+    }
+
     /* Should raise NoSuchMethodException */
     public /* do not make it static! */ class TestInstance2 extends JSObject {
     }
@@ -434,6 +515,199 @@ public class JSFunctionTest {
         }
     }
 
+    @org.junit.Test
+    public void testJSFunctionOverloads() throws Exception {
+        JSContext context = new JSContext();
+
+        context.property("overloaded", new JSFunction(context,"overloaded") {
+            @SuppressWarnings("unused")
+            public String overloaded() {
+                return "none";
+            }
+            @SuppressWarnings("unused")
+            public String overloaded(Integer x) {
+                return "number";
+            }
+            @SuppressWarnings("unused")
+            public String overloaded(String x) {
+                return "string";
+            }
+            @SuppressWarnings("unused")
+            public String overloaded(Boolean x) {
+                return "boolean";
+            }
+            @SuppressWarnings("unused")
+            public String overloaded(JSObject x) {
+                return "object";
+            }
+            @SuppressWarnings("unused")
+            public String overloaded(String x, Integer y) {
+                return "string,number";
+            }
+            @SuppressWarnings("unused")
+            public String overloaded(Integer x, Integer y, Integer z) {
+                return "number,number,number";
+            }
+        });
+        assertEquals("none", context.evaluateScript("overloaded()").toString());
+        assertEquals("number", context.evaluateScript("overloaded(1)").toString());
+        assertEquals("string", context.evaluateScript("overloaded('a')").toString());
+        assertEquals("boolean", context.evaluateScript("overloaded(true)").toString());
+        assertEquals("object", context.evaluateScript("overloaded({})").toString());
+        assertEquals("string,number", context.evaluateScript("overloaded('a',1)").toString());
+        assertEquals("number,number,number",
+                context.evaluateScript("overloaded(1,2,3)").toString());
+        // Missing arguments are passed as null, extra ones are ignored
+        assertEquals("number,number,number",
+                context.evaluateScript("overloaded(1,2,3,4)").toString());
+
+        // Overloads on shared interface prototypes
+        JSObject obj = new OverloadObject(context);
+        context.property("obj", obj);
+        assertEquals("number", context.evaluateScript("obj.describe(1)").toString());
+        assertEquals("string", context.evaluateScript("obj.describe('a')").toString());
+    }
+
+    public interface OverloadInterface {
+        String describe(Integer x);
+        String describe(String x);
+    }
+
+    public class OverloadObject extends JSObject implements OverloadInterface {
+        public OverloadObject(JSContext ctx) {
+            super(ctx, OverloadInterface.class);
+        }
+        @Override
+        public String describe(Integer x) {
+            return "number";
+        }
+        @Override
+        public String describe(String x) {
+            return "string";
+        }
+    }
+
+    @org.junit.Test
+    public void testJSFunctionCallBatch() throws Exception {
+        JSContext context = new JSContext();
+
+        JSFunction multiply = context.evaluateScript("(function(a,b) { return a*b; })")
+                .toFunction();
+        double [] results = multiply.callBatch(null, new double[][] {
+                new double[] {1, 2, 3, 4},
+                new double[] {5, 6, 7, 8}
+        });
+        assertArrayEquals(new double[] {5, 12, 21, 32}, results, 0.0);
+        assertEquals(0, multiply.callBatch(null, new double[][] {}).length);
+
+        JSObject obj = context.evaluateScript("({factor: 10})").toObject();
+        JSFunction scale = context.evaluateScript("(function(a) { return this.factor*a; })")
+                .toFunction();
+        assertArrayEquals(new double[] {10, 20},
+                scale.callBatch(obj, new double[][] { new double[] {1, 2} }), 0.0);
+
+        JSFunction concat = context.evaluateScript("(function(a,b) { return a + b; })")
+                .toFunction();
+        List<Object[]> argsList = new ArrayList<>();
+        argsList.add(new Object[] {"a", "b"});
+        argsList.add(new Object[] {1, "c"});
+        argsList.add(new Object[] {2, 3});
+        List<JSValue> values = concat.callBatch(null, argsList);
+        assertEquals(3, values.size());
+        assertEquals("ab", values.get(0).toString());
+        assertEquals("1c", values.get(1).toString());
+        assertTrue(values.get(2).isStrictEqual(5));
+
+        // A throwing call stops the batch
+        JSFunction thrower = context.evaluateScript(
+                "(function(a) { if (a > 1) throw 'too big'; return a; })").toFunction();
+        final List<JSException> exceptions = new ArrayList<>();
+        context.setExceptionHandler(new JSContext.IJSExceptionHandler() {
+            @Override
+            public void handle(JSException exception) {
+                exceptions.add(exception);
+            }
+        });
+        results = thrower.callBatch(null, new double[][] { new double[] {0, 1, 2, 3} });
+        assertEquals(1, exceptions.size());
+        assertEquals(0.0, results[0], 0.0);
+        assertEquals(1.0, results[1], 0.0);
+        assertTrue(Double.isNaN(results[2]));
+        assertTrue(Double.isNaN(results[3]));
+        context.clearExceptionHandler();
+    }
+
+    @org.junit.Test
+    public void testJSFunctionPrepare() throws Exception {
+        JSContext context = new JSContext();
+
+        JSFunction format = context.evaluateScript(
+                "(function(x, unit, neg) { return (neg ? -x : x) * this.scale + unit; })")
+                .toFunction();
+        JSObject thiz = context.evaluateScript("({scale: 2})").toObject();
+        JSFunction.PreparedCall call = format.prepare(thiz, 3);
+        call.setString(1, "cm");
+        for (int i=0; i<10; i++) {
+            assertEquals((i*2) + "cm", call.setInt(0, i).invoke().getString());
+        }
+        assertEquals("-4cm", call.setBoolean(2, true).setDouble(0, 2).invoke().getString());
+
+        JSFunction add = context.evaluateScript("(function(a,b) { return a+b; })").toFunction();
+        JSFunction.PreparedCall sum = add.prepare(2);
+        assertEquals(3.5, sum.setDouble(0, 1).setDouble(1, 2.5).invoke().getDouble(), 0.0);
+        assertEquals(3, sum.getInt());
+        assertTrue(sum.getBoolean());
+        assertTrue(sum.getValue().isStrictEqual(3.5));
+        assertEquals("1x", sum.setString(1, "x").invoke().getString());
+        assertTrue(Double.isNaN(sum.getDouble()));
+        JSValue value = new JSValue(context, 10);
+        assertEquals(11, sum.setValue(1, value).invoke().getInt());
+        assertEquals(1, sum.setNull(1).invoke().getInt());
+        assertTrue(Double.isNaN(sum.setUndefined(1).invoke().getDouble()));
+        assertFalse(sum.getBoolean());
+
+        JSFunction.PreparedCall object = context.evaluateScript("(function() { return {}; })")
+                .toFunction().prepare(0);
+        assertTrue(object.invoke().getValue().isObject());
+        assertTrue(object.getBoolean());
+        assertEquals("[object Object]", object.getString());
+
+        try {
+            sum.setDouble(2, 0);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @org.junit.Test
+    public void testJSFunctionCallPrimitives() throws Exception {
+        JSContext context = new JSContext();
+
+        JSFunction add = context.evaluateScript("(function(a,b) { return a+b; })").toFunction();
+        assertEquals(5.0, add.callForDouble(null, 2, 3), 0.0);
+        assertEquals("23", add.callForString(null, "2", 3));
+        assertTrue(add.callForBoolean(null, 1, 0));
+        assertFalse(add.callForBoolean(null, 1, -1));
+
+        JSObject counter = context.evaluateScript(
+                "({count: 0, increment: function(by) { this.count += by; }})").toObject();
+        JSFunction increment = counter.property("increment").toFunction();
+        for (int i=0; i<5; i++) {
+            increment.callForVoid(counter, 2);
+        }
+        assertEquals(10.0, counter.property("count").toNumber(), 0.0);
+
+        JSFunction thrower = context.evaluateScript("(function() { throw 'thrown'; })")
+                .toFunction();
+        try {
+            thrower.callForVoid(null);
+            fail();
+        } catch (JSException e) {
+            // expected
+        }
+    }
+
     @org.junit.Test
     public void testExceptionCases() throws Exception {
         JSContext context = new JSContext();
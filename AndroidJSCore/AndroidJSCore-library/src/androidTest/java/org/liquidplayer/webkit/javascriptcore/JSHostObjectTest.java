@@ -0,0 +1,103 @@
+package org.liquidplayer.webkit.javascriptcore;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class JSHostObjectTest {
+
+    public static class HostObject extends JSHostObject {
+        public HostObject(JSContext ctx) {
+            super(ctx);
+        }
+        @SuppressWarnings("unused")
+        public int add(int a, int b) {
+            return a + b;
+        }
+        @SuppressWarnings("unused")
+        public String name() {
+            return getThis().property("label").toString();
+        }
+    }
+
+    public interface IHostInterface {
+        @SuppressWarnings("unused") Integer intFunc();
+    }
+    public static class HostInterfaceObject extends JSHostObject implements IHostInterface {
+        public HostInterfaceObject(JSContext ctx) {
+            super(ctx, IHostInterface.class);
+        }
+        @Override
+        public Integer intFunc() {
+            return 5;
+        }
+        @SuppressWarnings("unused")
+        public Integer notExposed() {
+            return 6;
+        }
+    }
+
+    public static class MapObject extends JSHostObject {
+        private final Map<String,Object> map;
+        public MapObject(JSContext ctx, Map<String,Object> map) {
+            super(ctx);
+            this.map = map;
+        }
+        @Override
+        protected boolean hasMember(String name) {
+            return map.containsKey(name);
+        }
+        @Override
+        protected JSValue getMember(String name) {
+            return new JSValue(context, map.get(name));
+        }
+        @Override
+        protected String[] memberNames() {
+            return map.keySet().toArray(new String[map.size()]);
+        }
+    }
+
+    @Test
+    public void testJSHostObject() throws Exception {
+        JSContext context = new JSContext();
+
+        HostObject host = new HostObject(context);
+        context.property("host", host);
+        assertTrue(context.evaluateScript("host.add(1,2)").isStrictEqual(3));
+        assertTrue(context.evaluateScript("'add' in host").toBoolean());
+        assertFalse(context.evaluateScript("'subtract' in host").toBoolean());
+        assertTrue(context.evaluateScript("host.subtract === undefined").toBoolean());
+        assertTrue(context.evaluateScript("typeof host.toString === 'function'").toBoolean());
+        assertTrue(context.evaluateScript("Object.keys(host).sort().join()").toString()
+                .equals("add,name"));
+        host.property("label", "host");
+        assertTrue(context.evaluateScript("host.name()").isStrictEqual("host"));
+
+        HostObject host2 = new HostObject(context);
+        context.property("host2", host2);
+        assertTrue(context.evaluateScript("host.add === host2.add").toBoolean());
+
+        HostInterfaceObject iface = new HostInterfaceObject(context);
+        context.property("iface", iface);
+        assertTrue(context.evaluateScript("iface.intFunc()").isStrictEqual(5));
+        assertTrue(context.evaluateScript("iface.notExposed === undefined").toBoolean());
+
+        Map<String,Object> map = new HashMap<>();
+        map.put("one", 1);
+        map.put("two", "2");
+        context.property("map", new MapObject(context, map));
+        assertTrue(context.evaluateScript("map.one").isStrictEqual(1));
+        assertTrue(context.evaluateScript("map.two").isStrictEqual("2"));
+        assertTrue(context.evaluateScript("map.three === undefined").toBoolean());
+        map.put("three", 3.0);
+        assertTrue(context.evaluateScript("map.three").isStrictEqual(3));
+    }
+
+    @org.junit.After
+    public void shutDown() {
+        Runtime.getRuntime().gc();
+    }
+}
@@ -27,5 +27,65 @@ public class JSIteratorTest {
             }
         }
         assertEquals(i,array.size());
+
+        // jsnext() works on the batched iterators returned by values(), as it always has
+        JSArray.ValuesIterator jsIterator = array.values();
+        JSIterator.Next next = jsIterator.jsnext();
+        assertFalse(next.done());
+        assertEquals(1, next.value().toNumber().intValue());
+        assertEquals(Integer.valueOf(2), jsIterator.next());
+        assertEquals(3, jsIterator.jsnext().value().toNumber().intValue());
+        jsIterator.next();
+        jsIterator.next();
+        assertTrue(jsIterator.jsnext().done());
+    }
+
+    @Test
+    public void testBatchedJSIterator() throws Exception {
+        JSContext context = new JSContext();
+        JSObject counter = context.evaluateScript(
+                "var calls = 0; " +
+                "({ i: 0, next: function() { calls++; " +
+                "    return (this.i < 150) ? { value: this.i++, done: false } : { done: true }; } })"
+        ).toObject();
+        JSIterator<JSValue> iterator = new JSIterator<>(counter, 64);
+        int i = 0;
+        for (; iterator.hasNext(); i++) {
+            assertEquals(i, iterator.next().toNumber().intValue());
+        }
+        assertEquals(150, i);
+        assertFalse(iterator.hasNext());
+        // 150 values and one 'done' result; the iterator is not advanced past its end
+        assertEquals(151, context.property("calls").toNumber().intValue());
+
+        try {
+            iterator.next();
+            fail();
+        } catch (java.util.NoSuchElementException e) {
+            // expected
+        }
+        assertTrue(iterator.jsnext().done());
+        try {
+            new JSIterator<JSValue>(counter, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        Integer [] values = new Integer[200];
+        for (int j=0; j<values.length; j++) values[j] = j * 2;
+        JSArray<Integer> array = new JSArray<>(context, values, Integer.class);
+        java.util.Iterator<java.util.Map.Entry<Integer,Integer>> entries = array.entries();
+        for (i=0; entries.hasNext(); i++) {
+            java.util.Map.Entry<Integer,Integer> entry = entries.next();
+            assertEquals(Integer.valueOf(i), entry.getKey());
+            assertEquals(Integer.valueOf(i * 2), entry.getValue());
+        }
+        assertEquals(200, i);
+        java.util.Iterator<Integer> keys = array.keys();
+        for (i=0; keys.hasNext(); i++) {
+            assertEquals(Integer.valueOf(i), keys.next());
+        }
+        assertEquals(200, i);
     }
-}
\ No newline at end of file
+}
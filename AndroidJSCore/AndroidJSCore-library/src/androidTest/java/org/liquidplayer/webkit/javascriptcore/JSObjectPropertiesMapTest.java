@@ -194,6 +194,48 @@ public class JSObjectPropertiesMapTest {
         assertThat(map2.size(),is(0));
     }
 
+    @Test
+    public void testJSObjectPropertiesMapSnapshotIteration() throws Exception {
+        JSContext context = new JSContext();
+        Map<String,Integer> map = new JSObjectPropertiesMap<>(context,Integer.class);
+        for (int i=0; i<600; i++) {
+            map.put("key" + i, i);
+        }
+        assertThat(map.size(),is(600));
+        assertThat(((JSObjectPropertiesMap)map).getJSObject().propertyCount(),is(600));
+
+        Iterator<Map.Entry<String,Integer>> it = map.entrySet().iterator();
+        // Deleted after the snapshot is taken, so it is skipped
+        map.remove("key599");
+        int count = 0;
+        int sum = 0;
+        while (it.hasNext()) {
+            Map.Entry<String,Integer> entry = it.next();
+            assertEquals("key" + entry.getValue(), entry.getKey());
+            sum += entry.getValue();
+            count++;
+            if (entry.getValue() == 10) {
+                assertThat(entry.setValue(-10),is(10));
+                assertThat(entry.getValue(),is(-10));
+            }
+        }
+        assertThat(count,is(599));
+        assertThat(sum,is(599 * 598 / 2));
+        assertThat(map.get("key10"),is(-10));
+
+        int total = 0;
+        for (Integer value : map.values()) {
+            total += value;
+        }
+        assertThat(total,is(599 * 598 / 2 - 20));
+
+        Map<String,Object> undefined = new JSObjectPropertiesMap<>(context,Object.class);
+        ((JSObjectPropertiesMap)undefined).getJSObject().property("u", new JSValue(context));
+        Map.Entry<String,Object> entry = undefined.entrySet().iterator().next();
+        assertEquals("u", entry.getKey());
+        assertNull(entry.getValue());
+    }
+
     @org.junit.After
     public void shutDown() {
         Runtime.getRuntime().gc();
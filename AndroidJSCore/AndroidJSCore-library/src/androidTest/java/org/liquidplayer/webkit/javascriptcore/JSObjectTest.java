@@ -151,6 +151,17 @@ public class JSObjectTest {
         assertThat(array1.length,is(array2.length));
         for (int i=0; i<array1.length; i++)
             assertEquals(array1[i],array2[i]);
+        JSObject functionObject2 = new FunctionObject(context);
+        context.property("java2", functionObject2);
+        assertTrue(context.evaluateScript("java.hasOwnProperty('intFunc')").toBoolean());
+        assertTrue(context.evaluateScript("Object.keys(java).indexOf('intFunc') >= 0").toBoolean());
+        assertTrue(context.evaluateScript("var f = java2.intFunc; f()").isStrictEqual(5));
+        assertTrue(context.evaluateScript("java2.intFunc.call(null)").isStrictEqual(5));
+        assertTrue(context.evaluateScript("java2.intFunc()").isStrictEqual(5));
+        assertTrue(context.evaluateScript("java.intFunc === java.intFunc").toBoolean());
+        assertTrue(context.evaluateScript("java.intFunc.call(java2)").isStrictEqual(5));
+        assertTrue(context.evaluateScript("Object.create(java).intFunc()").isStrictEqual(5));
+        assertTrue(context.evaluateScript("java2.intFunc = 3; java2.intFunc").isStrictEqual(3));
 
         /**
          * new JSObject(context, map)
@@ -0,0 +1,72 @@
+package org.liquidplayer.webkit.javascriptcore;
+
+import android.support.test.InstrumentationRegistry;
+import android.util.Log;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Times element reads and writes on each typed array class.  This is not part of the
+ * functional suite: it is skipped unless the instrumentation is run with '-e benchmark true',
+ * for example:
+ * <pre>
+ * ./gradlew connectedAndroidTest -Pandroid.testInstrumentationRunnerArguments.benchmark=true
+ * </pre>
+ * Results are logged under the tag 'JSTypedArrayBenchmark'.
+ */
+public class JSTypedArrayBenchmark {
+
+    private static final String TAG = "JSTypedArrayBenchmark";
+    private static final int LENGTH = 10000;
+    private static final int WARMUP_ROUNDS = 2;
+
+    private static boolean enabled() {
+        return "true".equals(InstrumentationRegistry.getArguments().getString("benchmark"));
+    }
+
+    private <T> void benchmark(JSTypedArray<T> array, T value) {
+        int length = array.size();
+        assertEquals(LENGTH, length);
+        for (int round=0; round<WARMUP_ROUNDS; round++) {
+            for (int i=0; i<length; i++) {
+                array.set(i, value);
+            }
+            for (int i=0; i<length; i++) {
+                array.get(i);
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int i=0; i<length; i++) {
+            array.set(i, value);
+        }
+        long write = System.nanoTime() - start;
+        int matches = 0;
+        start = System.nanoTime();
+        for (int i=0; i<length; i++) {
+            if (value.equals(array.get(i))) matches++;
+        }
+        long read = System.nanoTime() - start;
+        assertEquals(length, matches);
+        Log.i(TAG, array.getClass().getSimpleName() + ": write " +
+                (write / length) + "ns/element, read " + (read / length) + "ns/element");
+    }
+
+    @Test
+    public void benchmarkElementAccess() throws Exception {
+        assumeTrue(enabled());
+        JSContext context = new JSContext();
+        benchmark(new JSInt8Array(context, LENGTH), (byte) -7);
+        benchmark(new JSUint8Array(context, LENGTH), (byte) 7);
+        benchmark(new JSUint8ClampedArray(context, LENGTH), (byte) 7);
+        benchmark(new JSInt16Array(context, LENGTH), (short) -300);
+        benchmark(new JSUint16Array(context, LENGTH), (short) 300);
+        benchmark(new JSInt32Array(context, LENGTH), -70000);
+        benchmark(new JSUint32Array(context, LENGTH), 70000L);
+        benchmark(new JSFloat32Array(context, LENGTH), 1.5f);
+        benchmark(new JSFloat64Array(context, LENGTH), 1.0/3.0);
+    }
+}
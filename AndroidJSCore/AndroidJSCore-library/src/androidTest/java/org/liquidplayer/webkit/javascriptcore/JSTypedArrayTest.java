@@ -1,7 +1,11 @@
 package org.liquidplayer.webkit.javascriptcore;
 
+import android.os.Build;
+
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.*;
 
 public class JSTypedArrayTest {
@@ -20,4 +24,130 @@ public class JSTypedArrayTest {
 
         assertFalse(JSTypedArray.isTypedArray(new JSValue(context)));
     }
-}
\ No newline at end of file
+
+    private static final int ROUND_TRIP_LENGTH = 100;
+
+    private <T> void roundTrip(JSTypedArray<T> array, T value) {
+        int length = array.size();
+        assertEquals(ROUND_TRIP_LENGTH, length);
+        for (int i=0; i<length; i++) {
+            array.set(i, value);
+        }
+        for (int i=0; i<length; i++) {
+            assertEquals(value, array.get(i));
+        }
+    }
+
+    @Test
+    public void testJSTypedArrayElementRoundTrip() throws Exception {
+        JSContext context = new JSContext();
+        roundTrip(new JSInt8Array(context, ROUND_TRIP_LENGTH), (byte) -7);
+        roundTrip(new JSUint8Array(context, ROUND_TRIP_LENGTH), (byte) 7);
+        roundTrip(new JSUint8ClampedArray(context, ROUND_TRIP_LENGTH), (byte) 7);
+        roundTrip(new JSInt16Array(context, ROUND_TRIP_LENGTH), (short) -300);
+        roundTrip(new JSUint16Array(context, ROUND_TRIP_LENGTH), (short) 300);
+        roundTrip(new JSInt32Array(context, ROUND_TRIP_LENGTH), -70000);
+        roundTrip(new JSUint32Array(context, ROUND_TRIP_LENGTH), 70000L);
+        roundTrip(new JSFloat32Array(context, ROUND_TRIP_LENGTH), 1.5f);
+        roundTrip(new JSFloat64Array(context, ROUND_TRIP_LENGTH), 1.0/3.0);
+    }
+
+    @Test
+    public void testJSTypedArrayPrimitives() throws Exception {
+        JSContext context = new JSContext();
+        JSInt32Array ints = new JSInt32Array(context, 600);
+        for (int i=0; i<ints.size(); i++) {
+            ints.setInt(i, i - 300);
+        }
+        assertEquals(-300, ints.getInt(0));
+        assertEquals(-300.0, ints.getDouble(0), 0);
+        assertEquals(-290, ints.subList(10, 20).getInt(0));
+        assertEquals(-281, ints.subList(10, 20).getInt(9));
+
+        JSUint32Array uints = new JSUint32Array(context, 2);
+        uints.setLong(0, 0xfffffffeL);
+        uints.setInt(1, -1);
+        assertEquals(0xfffffffeL, uints.getLong(0));
+        assertEquals(0xffffffffL, uints.getLong(1));
+        assertEquals(-2, uints.getInt(0));
+
+        JSFloat64Array doubles = new JSFloat64Array(context, 1);
+        doubles.setDouble(0, 1.0/3.0);
+        assertEquals(1.0/3.0, doubles.getDouble(0), 0);
+
+        try {
+            ints.getInt(600);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+
+        JSTypedArray<Integer>.IntChunkIterator it = ints.intIterator();
+        int count = 0;
+        while (it.hasNext()) {
+            assertEquals(count - 300, it.nextInt());
+            count++;
+        }
+        assertEquals(600, count);
+
+        JSTypedArray<Double>.DoubleChunkIterator dit = doubles.doubleIterator();
+        assertEquals(1.0/3.0, dit.nextDouble(), 0);
+        assertFalse(dit.hasNext());
+    }
+
+    @Test
+    public void testJSTypedArrayConstructorCache() throws Exception {
+        JSContext context = new JSContext();
+        JSFunction constructor = context.globalConstructor("Float32Array");
+        assertSame(constructor, context.globalConstructor("Float32Array"));
+
+        JSArrayBuffer buffer = new JSArrayBuffer(context, 16);
+        JSFloat32Array array = new JSFloat32Array(buffer, 4, 2);
+        assertEquals(2, array.size());
+        assertEquals(4, array.byteOffset());
+        assertTrue(constructor.isStrictEqual(array.property("constructor")));
+
+        JSDataView view = new JSDataView(buffer, 8, 4);
+        assertEquals(8, view.byteOffset());
+        assertEquals(4, view.byteLength());
+    }
+
+    @Test
+    public void testJSTypedArrayStreams() throws Exception {
+        if (Build.VERSION.SDK_INT < 24) return;
+        JSContext context = new JSContext();
+        JSInt16Array shorts = new JSInt16Array(context, 500);
+        short [] values = new short[500];
+        for (int i=0; i<values.length; i++) values[i] = (short) (i - 250);
+        shorts.set(values, 0, values.length);
+
+        assertEquals(-250 * 500 + 499 * 500 / 2, shorts.intStream().parallel().sum());
+        assertEquals(249, shorts.intStream().max().getAsInt());
+        assertEquals(10, shorts.subList(20, 30).intStream().count());
+
+        JSFloat64Array doubles = new JSFloat64Array(context, 3);
+        doubles.set(new double[] {0.5, 1.5, 2.5}, 0, 3);
+        assertEquals(4.5, doubles.doubleStream().sum(), 0);
+        assertEquals(1.5, doubles.subList(1, 2).doubleStream().sum(), 0);
+    }
+
+    @Test
+    public void testJSTypedArraySubList() throws Exception {
+        JSContext context = new JSContext();
+        JSInt32Array ints = new JSInt32Array(context, 10);
+        ints.set(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, 0, 10);
+
+        JSInt32Array sub = ints.subList(2, 8).subList(1, 4);
+        // The view is a JavaScript subarray of its own, not a chain of Java views
+        assertNull(sub.mSuperList);
+        assertEquals(3, sub.size());
+        context.property("sub", sub);
+        assertEquals(3, context.evaluateScript("sub.byteOffset / 4").toNumber().intValue());
+        assertEquals(Arrays.asList(3, 4, 5), sub);
+
+        sub.set(0, 30);
+        assertEquals(Integer.valueOf(30), ints.get(3));
+        ints.set(5, 50);
+        assertEquals(Integer.valueOf(50), sub.get(2));
+    }
+}
@@ -3,6 +3,7 @@ package org.liquidplayer.webkit.javascriptcore;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -279,4 +280,33 @@ public class JSUint8ArrayTest {
             assertThat(exception,is(true));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testJSUint8ArrayBulk() throws Exception {
+        JSUint8Array array = new JSUint8Array(context,4);
+        array.set(new byte[] {1, (byte)200, (byte)255, 0}, 0, 4);
+        assertEquals(200, context.evaluateScript("(function(a) { return a[1]; })")
+                .toFunction().call(null, array).toNumber().intValue());
+        byte [] dst = new byte[4];
+        array.get(dst, 0, 4);
+        assertArrayEquals(new byte[] {1, (byte)200, (byte)255, 0}, dst);
+
+        JSUint8ClampedArray clamped = new JSUint8ClampedArray(context,2);
+        clamped.set(new byte[] {(byte)200, (byte)255}, 0, 2);
+        dst = new byte[2];
+        clamped.get(dst, 0, 2);
+        assertArrayEquals(new byte[] {(byte)200, (byte)255}, dst);
+    }
+
+    @Test
+    public void testJSUint8ArrayWrap() throws Exception {
+        if (!JSArrayBuffer.isWrapSupported()) return;
+        ByteBuffer bb = ByteBuffer.allocateDirect(4);
+        bb.put(1,(byte)200);
+        JSUint8Array array = JSUint8Array.wrap(context,bb);
+        assertThat(array.size(),is(4));
+        assertThat(array.get(1).intValue() & 0xff,is(200));
+        array.set(2,(byte)7);
+        assertThat(bb.get(2),is((byte)7));
+    }
+}
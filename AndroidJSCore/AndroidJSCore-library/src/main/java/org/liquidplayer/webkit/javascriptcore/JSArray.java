@@ -34,10 +34,13 @@ package org.liquidplayer.webkit.javascriptcore;
 
 import android.support.annotation.NonNull;
 
+import java.lang.reflect.Array;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -114,16 +117,162 @@ public class JSArray<T> extends JSBaseArray<T> {
      * @since 3.0
      */
     public JSArray(JSContext ctx, Object [] array, Class<T> cls) {
+        this(ctx,valuesBuilder(ctx,array),cls);
+    }
+
+    private static abstract class ArrayBuilder implements Runnable {
+        JNIReturnObject jni;
+    }
+
+    private JSArray(JSContext ctx, ArrayBuilder builder, Class<T> cls) {
         super(ctx,cls);
-        long [] valueRefs = new long[array.length];
-        for (int i=0; i<array.length; i++) {
-            JSValue v = new JSValue(context,array[i]);
-            valueRefs[i] = v.valueRef();
-        }
-        valueRef = testException(makeArray(context.ctxRef(), valueRefs));
+        context.sync(builder);
+        valueRef = testException(builder.jni);
         context.persistObject(this);
     }
 
+    /**
+     * Java values encoded for the bulk native calls.  Nulls, booleans, numbers, strings and
+     * JSValues are passed to the native call as they are; only other objects, such as maps,
+     * lists and arrays, are converted to JSValues first.
+     */
+    private static class EncodedValues {
+        final int [] kinds;
+        final double [] numbers;
+        final long [] refs;
+        final String [] strings;
+        // Holds the converted values until they have been stored
+        private final List<JSValue> converted = new ArrayList<>();
+
+        EncodedValues(JSContext ctx, Object [] array) {
+            kinds = new int[array.length];
+            numbers = new double[array.length];
+            refs = new long[array.length];
+            strings = new String[array.length];
+            for (int i=0; i<array.length; i++) {
+                Object val = array[i];
+                if (val == null) {
+                    kinds[i] = TYPE_NULL;
+                } else if (val instanceof JSValue) {
+                    kinds[i] = TYPE_OBJECT;
+                    refs[i] = ((JSValue) val).valueRef();
+                } else if (val instanceof Boolean) {
+                    kinds[i] = TYPE_BOOLEAN;
+                    numbers[i] = ((Boolean) val) ? 1 : 0;
+                } else if (val instanceof Float) {
+                    // Converted through its string form, as JSValue does, so that 1.1f
+                    // becomes 1.1
+                    kinds[i] = TYPE_NUMBER;
+                    numbers[i] = Double.valueOf(val.toString());
+                } else if (val instanceof Double || val instanceof Integer ||
+                        val instanceof Long || val instanceof Byte || val instanceof Short) {
+                    kinds[i] = TYPE_NUMBER;
+                    numbers[i] = ((Number) val).doubleValue();
+                } else if (val instanceof String) {
+                    kinds[i] = TYPE_STRING;
+                    strings[i] = (String) val;
+                } else {
+                    JSValue value = new JSValue(ctx, val);
+                    converted.add(value);
+                    kinds[i] = TYPE_OBJECT;
+                    refs[i] = value.valueRef();
+                }
+            }
+        }
+
+        void release() {
+            converted.clear();
+        }
+    }
+
+    /**
+     * Builds an array from Java values in a single native call
+     */
+    private static ArrayBuilder valuesBuilder(final JSContext ctx, final Object [] array) {
+        return new ArrayBuilder() {
+            @Override
+            public void run() {
+                EncodedValues values = new EncodedValues(ctx, array);
+                jni = ctx.makeArrayFromValues(ctx.ctxRef(), values.kinds, values.numbers,
+                        values.refs, values.strings);
+                values.release();
+            }
+        };
+    }
+
+    private abstract class JNIReturnClass implements Runnable {
+        JNIReturnObject jni;
+    }
+
+    /**
+     * Stores 'values' into this array, starting at element 'index', in a single native call
+     */
+    private void storeElements(final Object [] values, int index) {
+        final int start = rootIndex(index);
+        JNIReturnClass runnable = new JNIReturnClass() {
+            @Override
+            public void run() {
+                EncodedValues encoded = new EncodedValues(context, values);
+                jni = setElementsFromValues(context.ctxRef(), valueRef, start, encoded.kinds,
+                        encoded.numbers, encoded.refs, encoded.strings);
+                encoded.release();
+            }
+        };
+        context.sync(runnable);
+        if (runnable.jni.exception!=0) {
+            context.throwJSException(new JSException(new JSValue(runnable.jni.exception,context)));
+        }
+    }
+
+    /**
+     * Creates a JavaScript array of numbers from 'values' in a single native call
+     * @param ctx  The JSContext in which to create the array
+     * @param values  The elements of the array
+     * @return the new JavaScript array
+     * @since 3.1
+     */
+    public static JSArray<Double> ofDoubles(final JSContext ctx, final double [] values) {
+        return new JSArray<>(ctx, new ArrayBuilder() {
+            @Override
+            public void run() {
+                jni = ctx.makeArrayFromNumbers(ctx.ctxRef(), values);
+            }
+        }, Double.class);
+    }
+
+    /**
+     * Creates a JavaScript array of numbers from 'values' in a single native call
+     * @param ctx  The JSContext in which to create the array
+     * @param values  The elements of the array
+     * @return the new JavaScript array
+     * @since 3.1
+     */
+    public static JSArray<Integer> ofInts(final JSContext ctx, final int [] values) {
+        return new JSArray<>(ctx, new ArrayBuilder() {
+            @Override
+            public void run() {
+                jni = ctx.makeArrayFromInts(ctx.ctxRef(), values);
+            }
+        }, Integer.class);
+    }
+
+    /**
+     * Creates a JavaScript array of strings from 'values' in a single native call.  Null
+     * elements become JavaScript nulls.
+     * @param ctx  The JSContext in which to create the array
+     * @param values  The elements of the array
+     * @return the new JavaScript array
+     * @since 3.1
+     */
+    public static JSArray<String> ofStrings(final JSContext ctx, final String [] values) {
+        return new JSArray<>(ctx, new ArrayBuilder() {
+            @Override
+            public void run() {
+                jni = ctx.makeArrayFromStrings(ctx.ctxRef(), values);
+            }
+        }, String.class);
+    }
+
     @SuppressWarnings("unchecked")
     protected JSArray(long valueRef, JSContext ctx) {
         super(valueRef,ctx,(Class<T>)JSValue.class);
@@ -186,6 +335,102 @@ public class JSArray<T> extends JSBaseArray<T> {
         }
     }
 
+    /**
+     * Removes, in a single JavaScript call, the elements of this list for which 'keep' is 0,
+     * moving the remaining elements down to close the gaps
+     */
+    private void compact(int [] keep) {
+        JSFunction compact = context.helperFunction("_compact",
+                new String[] {"start","keep"},
+                "var j = start;" +
+                "for (var i=0; i<keep.length; i++) {" +
+                "    if (keep[i]) this[j++] = this[start + i];" +
+                "}" +
+                "this.splice(j, start + keep.length - j);");
+        compact.call(this, rootIndex(0), ofInts(context, keep));
+    }
+
+    private boolean filter(final Collection<?> collection, boolean retain) {
+        if (hasJSValueElements()) {
+            // JSValue.equals() is JavaScript ==, so the comparison is made in JavaScript
+            JSFunction filter = context.helperFunction("_looseFilter",
+                    new String[] {"start","count","values","retain"},
+                    "var j = start;" +
+                    "for (var i=start; i<start + count; i++) {" +
+                    "    var found = false;" +
+                    "    for (var k=0; k<values.length && !found; k++) {" +
+                    "        found = (this[i] == values[k]);" +
+                    "    }" +
+                    "    if (found == retain) this[j++] = this[i];" +
+                    "}" +
+                    "return this.splice(j, start + count - j).length > 0;");
+            return filter.call(this, rootIndex(0), size(),
+                    new JSArray<>(context, collection, JSValue.class), retain).toBoolean();
+        }
+        int count = size();
+        List<T> elements = new ArrayList<>(count);
+        convertedElements(elements, mType, 0, count);
+        int [] keep = new int[count];
+        boolean any = false;
+        for (int i=0; i<count; i++) {
+            boolean found = false;
+            for (Object element : collection) {
+                if (elements.get(i).equals(element)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (found == retain) {
+                keep[i] = 1;
+            } else {
+                any = true;
+            }
+        }
+        if (any) {
+            compact(keep);
+        }
+        return any;
+    }
+
+    /**
+     * Compares the elements with the collection's in Java, as get().equals() does, or in
+     * JavaScript for JSValue elements, and then removes the matching elements in a single
+     * JavaScript call.
+     * @see java.util.List#removeAll(Collection)
+     * @since 3.1
+     */
+    @Override
+    public boolean removeAll(final @NonNull Collection<?> collection) {
+        return filter(collection, false);
+    }
+
+    /**
+     * Compares the elements with the collection's in Java, as get().equals() does, or in
+     * JavaScript for JSValue elements, and then removes the other elements in a single
+     * JavaScript call.
+     * @see java.util.List#retainAll(Collection)
+     * @since 3.1
+     */
+    @Override
+    public boolean retainAll(final @NonNull Collection<?> collection) {
+        return filter(collection, true);
+    }
+
+    /**
+     * Empties the array by setting its length to 0, or, for a subList, by splicing out its
+     * elements in a single call
+     * @see java.util.List#clear()
+     * @since 3.1
+     */
+    @Override
+    public void clear() {
+        if (mSuperList == null) {
+            property("length", 0);
+        } else {
+            property("splice").toFunction().call(this, rootIndex(0), size());
+        }
+    }
+
     /**
      * @see java.util.List#subList(int, int)
      * @since 3.0
@@ -199,6 +444,78 @@ public class JSArray<T> extends JSBaseArray<T> {
         return new JSArray(this,fromIndex,size()-toIndex,mType);
     }
 
+    /**
+     * Extracts all elements as numbers, as by JSValue.toNumber(), in a single native call
+     * @return the elements of this array
+     * @since 3.1
+     */
+    public double[] toDoubleArray() {
+        double [] array = new double[size()];
+        elementsAs(array, 0, TYPE_NUMBER);
+        return array;
+    }
+
+    /**
+     * Extracts all elements as ints, as by JSValue.toNumber().intValue(), in a single native
+     * call
+     * @return the elements of this array
+     * @since 3.1
+     */
+    public int[] toIntArray() {
+        double [] numbers = toDoubleArray();
+        int [] array = new int[numbers.length];
+        for (int i=0; i<numbers.length; i++) {
+            array[i] = (int) numbers[i];
+        }
+        return array;
+    }
+
+    /**
+     * Extracts all elements as strings, as by JSValue.toString(), in a single native call
+     * @return the elements of this array
+     * @since 3.1
+     */
+    public String[] toStringArray() {
+        String [] array = new String[size()];
+        elementsAs(array, 0, TYPE_STRING);
+        return array;
+    }
+
+    /**
+     * Extracts all elements, converted to class 'cls' as by get(), into a new Java list.  The
+     * elements are read in a single native call.  Booleans, numbers and strings are also
+     * converted in that call; other classes are converted from a JSValue for each element.
+     * @param cls  The class to convert the elements to (Integer.class, Double.class,
+     *             String.class, JSValue.class, etc.)
+     * @param <U>  The element type of the list
+     * @return a new list holding the converted elements
+     * @since 3.1
+     */
+    public <U> List<U> toList(Class<U> cls) {
+        int count = size();
+        List<U> list = new ArrayList<>(count);
+        convertedElements(list, cls, 0, count);
+        return list;
+    }
+
+    /**
+     * Converts to a static array with elements of class 'clazz'.  The elements are read in a
+     * single native call, as by toList().
+     * @param clazz   The class to convert the elements to (Integer.class, Double.class,
+     *                String.class, JSValue.class, etc.)
+     * @return The captured static array
+     * @since 3.1
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object[] toArray(Class clazz) {
+        if (clazz.isPrimitive()) {
+            return super.toArray(clazz);
+        }
+        List<?> list = toList(clazz);
+        return list.toArray((Object[]) Array.newInstance(clazz, list.size()));
+    }
+
     /** JavaScript methods **/
 
     /**
@@ -285,10 +602,8 @@ public class JSArray<T> extends JSBaseArray<T> {
      * @param params Elements to add to the array
      * @return the new JavaScript array
      */
-    @SuppressWarnings("unchecked")
     public static JSArray<JSValue> of(JSContext ctx, Object ... params) {
-        JSFunction of = ctx.property("Array").toObject().property("of").toFunction();
-        return (JSArray) of.apply(null,params).toJSArray();
+        return new JSArray<>(ctx, params, JSValue.class);
     }
 
     /**
@@ -454,33 +769,113 @@ public class JSArray<T> extends JSBaseArray<T> {
         double callback(T a, T b);
     }
 
+    /**
+     * Interface containing a function to call on each element for reduceInJava()
+     * @since 3.1
+     * @param <T> Parameterized type of array elements
+     * @param <U> Type of the accumulated value
+     */
+    public interface AccumulateCallback<T,U> {
+        /**
+         * A function to accumulate an array element into a value
+         * @param previousValue the value accumulated so far
+         * @param currentValue the current array element
+         * @param index index of 'currentValue' in the array
+         * @since 3.1
+         * @return new accumulated value
+         */
+        U callback(U previousValue, T currentValue, int index);
+    }
+
     protected JSValue each(JSFunction callback, JSObject thiz, String each) {
         return property(each).toFunction().call(this,callback,thiz);
     }
+    /**
+     * The receiver of a call to the context's callback trampoline.  Each functional method
+     * wraps its Java callback in a token, which JavaScript passes back as 'this' on every
+     * element, so that the shared trampoline can dispatch to it without reflection.
+     */
+    private abstract class CallbackToken extends JSObject {
+        CallbackToken() {
+            super(JSArray.this.context);
+        }
+        abstract JSValue dispatch(JSValue [] args);
+
+        @SuppressWarnings("unchecked")
+        T element(JSValue value) {
+            return (T) value.toJavaObject(mType);
+        }
+        int index(JSValue value) {
+            return value.toNumber().intValue();
+        }
+    }
+
+    /**
+     * A single function per context through which all Java callbacks passed to JSArray's
+     * functional methods are invoked.  This is handled by JSArray, and should not need to be
+     * used by clients.
+     * @since 3.1
+     */
+    static class CallbackTrampoline extends JSFunction {
+        CallbackTrampoline(JSContext ctx) {
+            super(ctx,"_trampoline");
+        }
+
+        /**
+         * Names the function only.  Calls are dispatched to the token by function() below.
+         */
+        @SuppressWarnings("unused")
+        public void _trampoline() {
+        }
+
+        @Override
+        protected JSValue function(JSObject thiz, JSValue [] args, JSObject invokeObject) {
+            if (!(thiz instanceof JSArray.CallbackToken)) {
+                throw new JSException(context, "Callback trampoline called without a callback");
+            }
+            return ((JSArray<?>.CallbackToken)thiz).dispatch(args);
+        }
+    }
+
+    private JSValue callWithTrampoline(String each, CallbackToken token, Object ... initialValue) {
+        JSFunction helper = context.helperFunction("_eachWithTrampoline",
+                new String[] {"name", "trampoline", "token", "initialValue"},
+                "var f = function(a, b, c, d) { return trampoline.call(token, a, b, c, d); }; " +
+                "return (arguments.length > 3) ? this[name](f, initialValue) : this[name](f);");
+        if (initialValue.length > 0) {
+            return helper.call(this, each, context.callbackTrampoline(), token, initialValue[0]);
+        }
+        return helper.call(this, each, context.callbackTrampoline(), token);
+    }
+
     protected JSValue each(final EachBooleanCallback<T> callback, String each) {
-        return property(each).toFunction().call(this,new JSFunction(context,"_callback") {
-            @SuppressWarnings("unchecked,unused")
-            public boolean _callback(T currentValue, int index, JSArray array) {
-                return callback.callback((T)((JSValue)currentValue).toJavaObject(mType),index,array);
+        return callWithTrampoline(each, new CallbackToken() {
+            @Override
+            JSValue dispatch(JSValue [] args) {
+                return new JSValue(context,
+                        callback.callback(element(args[0]),index(args[1]),JSArray.this));
             }
         });
     }
     protected JSValue each(final ForEachCallback<T> callback, String each) {
-        return property(each).toFunction().call(this,new JSFunction(context,"_callback") {
-            @SuppressWarnings("unchecked,unused")
-            public void _callback(T currentValue, int index, JSArray array) {
-                callback.callback((T)((JSValue)currentValue).toJavaObject(mType),index,array);
+        return callWithTrampoline(each, new CallbackToken() {
+            @Override
+            JSValue dispatch(JSValue [] args) {
+                callback.callback(element(args[0]),index(args[1]),JSArray.this);
+                return new JSValue(context);
             }
         });
     }
     protected JSValue each(final ReduceCallback callback, String each, Object initialValue) {
-        return property(each).toFunction().call(this,new JSFunction(context,"_callback") {
-            @SuppressWarnings("unused")
-            public JSValue _callback(JSValue previousValue, JSValue currentValue, int index,
-                                     JSArray<JSValue> array) {
-                return callback.callback(previousValue,currentValue,index,array);
+        return callWithTrampoline(each, new CallbackToken() {
+            @Override
+            @SuppressWarnings("unchecked")
+            JSValue dispatch(JSValue [] args) {
+                JSValue ret = callback.callback(args[0],args[1],index(args[2]),
+                        (JSArray<JSValue>)(JSArray)JSArray.this);
+                return (ret == null) ? new JSValue(context) : ret;
             }
-        },initialValue);
+        }, initialValue);
     }
 
     /**
@@ -490,19 +885,35 @@ public class JSArray<T> extends JSBaseArray<T> {
      */
     public class EntriesIterator<U> extends JSIterator<Map.Entry<Integer,U>> {
         protected EntriesIterator(JSObject iterator) {
-            super(iterator);
+            super(iterator, DEFAULT_BATCH_SIZE);
         }
 
         /**
-         * Gets the next entry in the array
-         * @return a Map.Entry element containing the index and value
+         * Splits a batch of [index, value] entries into an array of indices and an array of
+         * values in a single call, and converts each of them in a single native call
          */
         @Override
         @SuppressWarnings("unchecked")
-        public Map.Entry<Integer,U> next() {
-            JSObject next = jsnext().value().toObject();
-            return new AbstractMap.SimpleEntry<>(next.propertyAtIndex(0).toNumber().intValue(),
-                    (U) next.propertyAtIndex(1).toJavaObject(mType));
+        protected void convertBatch(JSArray<JSValue> values, int count,
+                                    List<Map.Entry<Integer,U>> out) {
+            JSFunction unzip = context.helperFunction("_unzipEntries",
+                    new String[] {"entries"},
+                    "var keys = [], values = []; " +
+                    "for (var i = 0; i < entries.length; i++) { " +
+                    "    keys.push(entries[i][0]); " +
+                    "    values.push(entries[i][1]); " +
+                    "} " +
+                    "return [keys, values];");
+            JSObject unzipped = unzip.call(null, values).toObject();
+            List<Integer> keys = new ArrayList<>(count);
+            unzipped.propertyAtIndex(0).toJSArray().convertedElements(keys, Integer.class, 0,
+                    count);
+            List<U> elements = new ArrayList<>(count);
+            unzipped.propertyAtIndex(1).toJSArray().convertedElements(elements,
+                    (Class<U>) mType, 0, count);
+            for (int i=0; i<count; i++) {
+                out.add(new AbstractMap.SimpleEntry<>(keys.get(i), elements.get(i)));
+            }
         }
     }
 
@@ -703,22 +1114,21 @@ public class JSArray<T> extends JSBaseArray<T> {
      */
     public class KeysIterator extends JSIterator<Integer> {
         protected KeysIterator(JSObject iterator) {
-            super(iterator);
+            super(iterator, DEFAULT_BATCH_SIZE);
+        }
+
+        @Override
+        protected void convertBatch(JSArray<JSValue> values, int count, List<Integer> out) {
+            values.convertedElements(out, Integer.class, 0, count);
         }
 
         /**
          * Gets the next key in the array
-         * @return the array index
+         * @return the array index, or null if there are no more keys
          */
         @Override
-        @SuppressWarnings("unchecked")
         public Integer next() {
-            Next jsnext = jsnext();
-
-            if (jsnext.value().isUndefined()) return null;
-
-            JSValue next = jsnext.value();
-            return (Integer) next.toJavaObject(Integer.class);
+            return hasNext() ? super.next() : null;
         }
     }
 
@@ -786,6 +1196,25 @@ public class JSArray<T> extends JSBaseArray<T> {
     public JSValue reduce(final ReduceCallback callback) {
         return reduce(callback,null);
     }
+    /**
+     * Reduces the array in Java, rather than by calling back from JavaScript for each element.
+     * The elements are read in chunks of bulk native calls, converted to the array's element
+     * type, and passed to 'callback' in order.
+     * @since 3.1
+     * @param callback the Java function to call on each element
+     * @param initialValue the value to pass as 'previousValue' with the first element
+     * @param <U> the type of the accumulated value
+     * @return the value returned by the last call to 'callback', or 'initialValue' if the
+     *         array is empty
+     */
+    public <U> U reduceInJava(final AccumulateCallback<? super T,U> callback, U initialValue) {
+        U value = initialValue;
+        int index = 0;
+        for (Iterator<T> it = snapshotIterator(); it.hasNext(); index++) {
+            value = callback.callback(value, it.next(), index);
+        }
+        return value;
+    }
 
     /**
      * JavaScript Array.prototype.reduceRight(), see:
@@ -869,18 +1298,24 @@ public class JSArray<T> extends JSBaseArray<T> {
      */
     public class ValuesIterator<U> extends JSIterator<U> {
         protected ValuesIterator(JSObject iterator) {
-            super(iterator);
+            super(iterator, DEFAULT_BATCH_SIZE);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void convertBatch(JSArray<JSValue> values, int count, List<U> out) {
+            values.convertedElements(out, (Class<U>) mType, 0, count);
         }
 
         /**
          * Gets the next element of the array
-         * @return the next value in the array
+         * @return the next value in the array, or undefined converted to the element type if
+         *         there are no more values
          */
         @Override
         @SuppressWarnings("unchecked")
         public U next() {
-            Next jsnext = jsnext();
-            return (U) jsnext.value().toJavaObject(mType);
+            return hasNext() ? super.next() : (U) new JSValue(context).toJavaObject(mType);
         }
     }
 
@@ -1034,10 +1469,11 @@ public class JSArray<T> extends JSBaseArray<T> {
      */
     @SuppressWarnings("unchecked")
     public JSArray<JSValue> map(final MapCallback<T> callback) {
-        return (JSArray<JSValue>)property("map").toFunction().call(this,new JSFunction(context,"_callback") {
-            @SuppressWarnings("unchecked,unused")
-            public JSValue _callback(T currentValue, int index, JSArray<T> array) {
-                return callback.callback((T)((JSValue)currentValue).toJavaObject(mType),index,array);
+        return (JSArray<JSValue>)callWithTrampoline("map", new CallbackToken() {
+            @Override
+            JSValue dispatch(JSValue [] args) {
+                JSValue ret = callback.callback(element(args[0]),index(args[1]),JSArray.this);
+                return (ret == null) ? new JSValue(context) : ret;
             }
         }).toJSArray();
     }
@@ -1107,14 +1543,77 @@ public class JSArray<T> extends JSBaseArray<T> {
      */
     @SuppressWarnings("unchecked")
     public JSArray<T> sort(final SortCallback<T> callback) {
-        return (JSArray<T>)(property("sort").toFunction().call(this,new JSFunction(context,"_callback") {
-            @SuppressWarnings("unused")
-            public double _callback(T a, T b) {
-                return callback.callback((T)((JSValue)a).toJavaObject(mType),
-                        (T)((JSValue)b).toJavaObject(mType));
+        return (JSArray<T>)(callWithTrampoline("sort", new CallbackToken() {
+            @Override
+            JSValue dispatch(JSValue [] args) {
+                return new JSValue(context, callback.callback(element(args[0]),element(args[1])));
             }
         }).toJSArray());
     }
+    /**
+     * Sorts the array in Java, rather than by calling back from JavaScript for each comparison.
+     * The elements are read in a single native call, converted to the array's element type,
+     * ordered with 'comparator' and written back in a single native call.  Only the order
+     * changes: the original JavaScript values are written back, not their converted forms.
+     * Unlike Array.prototype.sort(), undefined elements are passed to 'comparator' as
+     * converted.  A sublist sorts only its own range.
+     * @since 3.1
+     * @param comparator the Java comparator to sort with, or null for the elements' natural
+     *                   ordering
+     * @return this (mutable)
+     */
+    public JSArray<T> sortInJava(final Comparator<? super T> comparator) {
+        final int size = size();
+        final List<T> keys = new ArrayList<>(size);
+        convertedElements(keys, mType, 0, size);
+        Integer [] order = new Integer[size];
+        for (int i=0; i<size; i++) order[i] = i;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public int compare(Integer a, Integer b) {
+                T keyA = keys.get(a);
+                T keyB = keys.get(b);
+                return (comparator == null) ?
+                        ((Comparable<? super T>) keyA).compareTo(keyB) :
+                        comparator.compare(keyA, keyB);
+            }
+        });
+
+        final long [] refs = new long[size];
+        try {
+            elementsAs(refs, 0, TYPE_OBJECT);
+            final int [] kinds = new int[size];
+            final long [] sorted = new long[size];
+            for (int i=0; i<size; i++) {
+                sorted[i] = refs[order[i]];
+                kinds[i] = (sorted[i] == 0) ? TYPE_UNDEFINED : TYPE_OBJECT;
+            }
+            final int start = rootIndex(0);
+            JNIReturnClass runnable = new JNIReturnClass() {
+                @Override
+                public void run() {
+                    jni = setElementsFromValues(context.ctxRef(), valueRef, start, kinds,
+                            new double[size], sorted, new String[size]);
+                }
+            };
+            context.sync(runnable);
+            if (runnable.jni.exception!=0) {
+                context.throwJSException(
+                        new JSException(new JSValue(runnable.jni.exception,context)));
+            }
+        } finally {
+            context.sync(new Runnable() {
+                @Override
+                public void run() {
+                    for (long ref : refs) {
+                        if (ref != 0) unprotect(context.ctxRef(), ref);
+                    }
+                }
+            });
+        }
+        return this;
+    }
     /**
      * JavaScript Array.prototype.sort(), see:
      * https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/Array/sort
@@ -32,6 +32,8 @@
 */
 package org.liquidplayer.webkit.javascriptcore;
 
+import java.nio.ByteBuffer;
+
 /**
  * A wrapper class for a JavaScript ArrayBuffer
  * See: https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/ArrayBuffer
@@ -46,9 +48,26 @@ public class JSArrayBuffer extends JSObjectWrapper {
      * @since 3.0
      */
     public JSArrayBuffer(JSContext ctx, int length) {
-        super(new JSFunction(ctx,"_ArrayBuffer",new String[] {"length"},
-                "return new ArrayBuffer(length);",
-                null, 0).call(null,length).toObject());
+        super(ctx.construct("ArrayBuffer",length));
+    }
+
+    /**
+     * Creates a new array buffer over the remaining bytes of a direct ByteBuffer, without
+     * copying them.  JavaScript reads and writes the ByteBuffer's memory directly, and the
+     * ByteBuffer is kept alive until the ArrayBuffer is garbage collected.  This also works
+     * with a MappedByteBuffer, so that a file can be exposed to JavaScript without reading it
+     * into memory first.
+     * <p>
+     * The position and limit of 'buffer' are read once, when the ArrayBuffer is created; later
+     * changes to them do not affect the ArrayBuffer.
+     * @param ctx  the JSContext in which to create the ArrayBuffer
+     * @param buffer  a direct, writable ByteBuffer
+     * @throws IllegalArgumentException if 'buffer' is not direct or is read-only
+     * @throws UnsupportedOperationException if isWrapSupported() is false
+     * @since 3.1
+     */
+    public JSArrayBuffer(JSContext ctx, ByteBuffer buffer) {
+        super(makeWithByteBuffer(ctx, buffer));
     }
 
     /**
@@ -107,4 +126,150 @@ public class JSArrayBuffer extends JSObjectWrapper {
         return new JSArrayBuffer(
                 property("slice").toFunction().call(this,begin).toObject());
     }
+
+    /**
+     * Determines if asByteBuffer() is supported by the JavaScriptCore library in use.  Direct
+     * access requires a JavaScriptCore which exports the typed array C API.
+     * @return true if asByteBuffer() is supported, false otherwise
+     * @since 3.1
+     */
+    public static boolean isByteBufferSupported() {
+        return hasBytesPtr();
+    }
+
+    private ByteBuffer byteBuffer = null;
+    private boolean byteBufferProtected = false;
+
+    /**
+     * Gets a direct ByteBuffer which shares its contents with this ArrayBuffer, so that they
+     * can be read and written from Java without copying.  Changes made on either side are
+     * immediately visible on the other.  Each call returns a new buffer, with its own position
+     * and limit, over the same bytes.
+     * <p>
+     * The ArrayBuffer is kept alive, even if this JSArrayBuffer becomes unreachable, until
+     * releaseByteBuffer() is called.  Its byte order is big-endian, as for any new
+     * ByteBuffer; typed arrays use the platform byte order, ByteOrder.nativeOrder().
+     * @return a direct ByteBuffer over the contents of this ArrayBuffer
+     * @throws UnsupportedOperationException if isByteBufferSupported() is false
+     * @since 3.1
+     */
+    public ByteBuffer asByteBuffer() {
+        ByteBuffer bytes = byteBufferView();
+        if (!byteBufferProtected && bytes.capacity() != 0) {
+            context.sync(new Runnable() {
+                @Override
+                public void run() {
+                    protect(context.ctxRef(), valueRef());
+                }
+            });
+            byteBufferProtected = true;
+        }
+        return bytes;
+    }
+
+    /**
+     * Releases the ArrayBuffer kept alive by asByteBuffer(), so that it can be garbage
+     * collected once JavaScript no longer references it.  No ByteBuffer returned by
+     * asByteBuffer() may be used after this is called.
+     * @since 3.1
+     */
+    public void releaseByteBuffer() {
+        if (byteBufferProtected) {
+            context.sync(new Runnable() {
+                @Override
+                public void run() {
+                    unprotect(context.ctxRef(), valueRef());
+                }
+            });
+            byteBufferProtected = false;
+        }
+        byteBuffer = null;
+    }
+
+    /**
+     * Gets a direct ByteBuffer over the contents of this ArrayBuffer without keeping the
+     * ArrayBuffer alive.  The caller must hold on to this JSArrayBuffer for as long as it
+     * uses the buffer.
+     */
+    ByteBuffer byteBufferView() {
+        if (!isByteBufferSupported()) {
+            throw new UnsupportedOperationException("The JavaScriptCore library in use does " +
+                    "not support direct access to ArrayBuffers");
+        }
+        if (byteBuffer == null) {
+            context.sync(new Runnable() {
+                @Override
+                public void run() {
+                    byteBuffer = getByteBuffer(context.ctxRef(), valueRef());
+                }
+            });
+            if (byteBuffer == null) {
+                if (byteLength() != 0) {
+                    throw new JSException(context, "Object is not an ArrayBuffer");
+                }
+                byteBuffer = ByteBuffer.allocateDirect(0);
+            }
+        }
+        return byteBuffer.duplicate();
+    }
+
+    /**
+     * Determines if ArrayBuffers can be created over a ByteBuffer with
+     * JSArrayBuffer(JSContext, ByteBuffer).  This requires a JavaScriptCore which exports the
+     * typed array C API.
+     * @return true if wrapping a ByteBuffer is supported, false otherwise
+     * @since 3.1
+     */
+    public static boolean isWrapSupported() {
+        return hasBytesNoCopy();
+    }
+
+    private static abstract class JNIReturnClass implements Runnable {
+        JNIReturnObject jni;
+        JSObject object;
+    }
+
+    private static JSObject makeWithByteBuffer(final JSContext ctx, final ByteBuffer buffer) {
+        if (!buffer.isDirect()) {
+            throw new IllegalArgumentException("ByteBuffer must be direct");
+        }
+        if (buffer.isReadOnly()) {
+            throw new IllegalArgumentException("ByteBuffer must not be read-only");
+        }
+        if (!isWrapSupported()) {
+            throw new UnsupportedOperationException("The JavaScriptCore library in use does " +
+                    "not support creating ArrayBuffers over external memory");
+        }
+        JNIReturnClass runnable = new JNIReturnClass() {
+            @Override
+            public void run() {
+                jni = makeWithByteBuffer(ctx.ctxRef(), buffer, buffer.position(),
+                        buffer.remaining());
+                if (jni.exception == 0 && jni.reference != 0) {
+                    // Balance the protection taken by the native call, or the ArrayBuffer
+                    // and the memory it holds would never be released
+                    object = new JSObject(jni.reference, ctx);
+                    object.unprotect(ctx.ctxRef(), jni.reference);
+                }
+            }
+        };
+        ctx.sync(runnable);
+        if (runnable.jni.exception != 0) {
+            ctx.throwJSException(new JSException(new JSValue(runnable.jni.exception, ctx)));
+            return new JSArrayBuffer(ctx, 0).getJSObject();
+        }
+        if (runnable.object == null) {
+            throw new IllegalArgumentException("Unable to access ByteBuffer memory");
+        }
+        return runnable.object;
+    }
+
+    protected static native boolean hasBytesNoCopy();
+
+    protected static native JNIReturnObject makeWithByteBuffer(long ctx, ByteBuffer buffer,
+                                                                int offset, int length);
+
+    protected static native boolean hasBytesPtr();
+
+    protected native ByteBuffer getByteBuffer(long ctx, long object);
 }
@@ -32,14 +32,20 @@
 */
 package org.liquidplayer.webkit.javascriptcore;
 
+import android.annotation.TargetApi;
 import android.support.annotation.NonNull;
 
 import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 /**
  * A convenience class for handling JavaScript arrays.  Implements java.util.List interface for
@@ -59,11 +65,19 @@ public abstract class JSBaseArray<T> extends JSFunction implements List<T> {
     }
     protected JSBaseArray(JSBaseArray<T> superList, int leftBuffer, int rightBuffer, Class<T> cls) {
         mType = cls;
-        mLeftBuffer = leftBuffer;
-        mRightBuffer = rightBuffer;
         context = superList.context;
         valueRef = superList.valueRef();
-        mSuperList = superList;
+        // A view of a view refers directly to the top-level array, with the offsets combined,
+        // so that size() and element access never walk a chain of views
+        if (superList.mSuperList == null) {
+            mSuperList = superList;
+        } else {
+            mSuperList = superList.mSuperList;
+            leftBuffer += superList.mLeftBuffer;
+            rightBuffer += superList.mRightBuffer;
+        }
+        mLeftBuffer = leftBuffer;
+        mRightBuffer = rightBuffer;
     }
     protected JSBaseArray(JSContext ctx, Class<T> cls) {
         context = ctx;
@@ -178,11 +192,7 @@ public abstract class JSBaseArray<T> extends JSFunction implements List<T> {
      */
     @Override
     public boolean contains(final Object object) {
-        for (int i=0; i<size(); i++) {
-            if(get(i).equals(object))
-                return true;
-        }
-        return false;
+        return indexOf(object) >= 0;
     }
 
     private class ArrayIterator implements ListIterator<T> {
@@ -259,6 +269,210 @@ public abstract class JSBaseArray<T> extends JSFunction implements List<T> {
         }
     }
 
+    private abstract class JNIReturnClass implements Runnable {
+        JNIReturnObject jni;
+    }
+
+    /**
+     * Determines if get() returns JSValues, whose equals() is JavaScript ==, so that
+     * comparisons can be made in JavaScript
+     * @return true if the elements are JSValues
+     * @since 3.1
+     */
+    protected boolean hasJSValueElements() {
+        return mType == JSValue.class || mType == Object.class;
+    }
+
+    /**
+     * Converts an index in this list to an index in the underlying JavaScript array, which
+     * differ if this list is a subList
+     * @param index  The index in this list
+     * @return the index in the JavaScript array
+     * @since 3.1
+     */
+    protected int rootIndex(int index) {
+        return index + mLeftBuffer;
+    }
+
+    /**
+     * Reads elements of this array, starting at 'index', converted to 'type', into 'dst' in a
+     * single native call.  'dst' is a boolean[], double[] or String[] for TYPE_BOOLEAN,
+     * TYPE_NUMBER and TYPE_STRING, and otherwise a long[] which receives protected value
+     * references.  Its length is the number of elements to read.
+     * @param dst  The Java array to read into
+     * @param index  The first element to read
+     * @param type  The type to convert the elements to
+     * @since 3.1
+     */
+    protected void elementsAs(final Object dst, int index, final int type) {
+        final int start = rootIndex(index);
+        JNIReturnClass runnable = new JNIReturnClass() {
+            @Override
+            public void run() {
+                jni = getElementsAs(context.ctxRef(), valueRef, start, dst, type);
+            }
+        };
+        context.sync(runnable);
+        if (runnable.jni.exception!=0) {
+            context.throwJSException(new JSException(new JSValue(runnable.jni.exception,context)));
+        }
+    }
+
+    /**
+     * Reads 'count' elements, starting at 'index', converted to class 'cls' as by get(), and
+     * appends them to 'out'.  The elements are read in a single native call.  Booleans, numbers
+     * and strings are also converted in that call; other classes are converted from a JSValue
+     * for each element.
+     * @param out  The list to append the elements to
+     * @param cls  The class to convert the elements to
+     * @param index  The first element to read
+     * @param count  The number of elements to read
+     * @param <U>  The element type
+     * @since 3.1
+     */
+    @SuppressWarnings("unchecked")
+    protected <U> void convertedElements(List<? super U> out, Class<U> cls, int index, int count) {
+        if (cls == String.class) {
+            String [] array = new String[count];
+            elementsAs(array, index, TYPE_STRING);
+            out.addAll((List<U>) Arrays.asList(array));
+        } else if (cls == Boolean.class || cls == boolean.class) {
+            boolean [] array = new boolean[count];
+            elementsAs(array, index, TYPE_BOOLEAN);
+            for (boolean b : array) out.add((U) Boolean.valueOf(b));
+        } else if (cls == Double.class || cls == double.class) {
+            double [] array = new double[count];
+            elementsAs(array, index, TYPE_NUMBER);
+            for (double d : array) out.add((U) Double.valueOf(d));
+        } else if (cls == Float.class || cls == float.class) {
+            double [] array = new double[count];
+            elementsAs(array, index, TYPE_NUMBER);
+            for (double d : array) out.add((U) Float.valueOf((float) d));
+        } else if (cls == Integer.class || cls == int.class) {
+            double [] array = new double[count];
+            elementsAs(array, index, TYPE_NUMBER);
+            for (double d : array) out.add((U) Integer.valueOf((int) d));
+        } else if (cls == Long.class || cls == long.class) {
+            double [] array = new double[count];
+            elementsAs(array, index, TYPE_NUMBER);
+            for (double d : array) out.add((U) Long.valueOf((long) d));
+        } else if (cls == Byte.class || cls == byte.class) {
+            double [] array = new double[count];
+            elementsAs(array, index, TYPE_NUMBER);
+            for (double d : array) out.add((U) Byte.valueOf((byte) (int) d));
+        } else if (cls == Short.class || cls == short.class) {
+            double [] array = new double[count];
+            elementsAs(array, index, TYPE_NUMBER);
+            for (double d : array) out.add((U) Short.valueOf((short) (int) d));
+        } else {
+            final long [] refs = new long[count];
+            try {
+                elementsAs(refs, index, TYPE_OBJECT);
+                for (long ref : refs) {
+                    out.add((U) new JSValue(ref, context).toJavaObject(cls));
+                }
+            } finally {
+                context.sync(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (long ref : refs) {
+                            if (ref != 0) unprotect(context.ctxRef(), ref);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * The default number of elements read at a time by snapshotIterator()
+     * @since 3.1
+     */
+    public static final int SNAPSHOT_CHUNK_SIZE = 256;
+
+    private class SnapshotIterator implements Iterator<T> {
+        private final int length = size();
+        private final int chunkSize;
+        private final List<T> chunk;
+        private int chunkStart = 0;
+        private int next = 0;
+
+        SnapshotIterator(int chunkSize) {
+            if (chunkSize < 1) {
+                throw new IllegalArgumentException("chunkSize must be positive");
+            }
+            this.chunkSize = chunkSize;
+            chunk = new ArrayList<>(Math.min(chunkSize, length));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < length;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            if (next >= chunkStart + chunk.size()) {
+                if (size() != length) {
+                    throw new ConcurrentModificationException();
+                }
+                chunk.clear();
+                chunkStart = next;
+                convertedElements(chunk, mType, chunkStart, Math.min(chunkSize, length - next));
+            }
+            return chunk.get(next++ - chunkStart);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Gets a read-only iterator which reads the length of the array once, and then reads the
+     * elements 'chunkSize' at a time, each chunk in a single native call.  Before each chunk
+     * is read, the length is checked again, and ConcurrentModificationException is thrown if
+     * it has changed.  Changes which do not alter the length may or may not be seen.
+     * @param chunkSize  The number of elements to read at a time
+     * @return an iterator over a snapshot of this array
+     * @since 3.1
+     */
+    public Iterator<T> snapshotIterator(int chunkSize) {
+        return new SnapshotIterator(chunkSize);
+    }
+
+    /**
+     * Gets a spliterator over a snapshot of this array.  All of the elements are read, and
+     * converted as by get(), when the spliterator is created, so stream() and parallelStream()
+     * read the array once, when the stream is created, and then split and traverse plain Java
+     * data on any thread.  Later changes to the array are not seen.  Elements which are
+     * JSValues still go through the context's thread when they are used.
+     * @return a spliterator over a snapshot of this array
+     * @since 3.1
+     */
+    @Override
+    @TargetApi(24)
+    public Spliterator<T> spliterator() {
+        int size = size();
+        List<T> elements = new ArrayList<>(size);
+        convertedElements(elements, mType, 0, size);
+        return Spliterators.spliterator(elements.toArray(),
+                Spliterator.ORDERED | Spliterator.IMMUTABLE);
+    }
+
+    /**
+     * Gets a read-only iterator which reads SNAPSHOT_CHUNK_SIZE elements at a time
+     * @see #snapshotIterator(int)
+     * @return an iterator over a snapshot of this array
+     * @since 3.1
+     */
+    public Iterator<T> snapshotIterator() {
+        return new SnapshotIterator(SNAPSHOT_CHUNK_SIZE);
+    }
+
     /**
      * @see List#iterator()
      * @since 3.0
@@ -313,8 +527,17 @@ public abstract class JSBaseArray<T> extends JSFunction implements List<T> {
      */
     @Override
     public boolean containsAll(final @NonNull Collection<?> collection) {
+        if (hasJSValueElements()) {
+            for (Object item : collection.toArray()) {
+                if (!contains(item)) return false;
+            }
+            return true;
+        }
+        int count = size();
+        List<T> elements = new ArrayList<>(count);
+        convertedElements(elements, mType, 0, count);
         for (Object item : collection.toArray()) {
-            if (!contains(item)) return false;
+            if (indexIn(elements, item, false) < 0) return false;
         }
         return true;
     }
@@ -441,11 +664,16 @@ public abstract class JSBaseArray<T> extends JSFunction implements List<T> {
      */
     @Override
     public int indexOf(final Object object) {
-        ListIterator<T> listIterator = listIterator();
-        while (listIterator.hasNext()) {
-            if (listIterator.next().equals(object)) {
-                return listIterator.nextIndex() - 1;
-            }
+        if (hasJSValueElements()) {
+            return looseIndexOf(object, false);
+        }
+        int count = size();
+        List<T> chunk = new ArrayList<>(Math.min(count, SNAPSHOT_CHUNK_SIZE));
+        for (int start = 0; start < count; start += SNAPSHOT_CHUNK_SIZE) {
+            chunk.clear();
+            convertedElements(chunk, mType, start, Math.min(SNAPSHOT_CHUNK_SIZE, count - start));
+            int index = indexIn(chunk, object, false);
+            if (index >= 0) return start + index;
         }
         return -1;
     }
@@ -456,15 +684,49 @@ public abstract class JSBaseArray<T> extends JSFunction implements List<T> {
      */
     @Override
     public int lastIndexOf(final Object object) {
-        ListIterator<T> listIterator = listIterator(size());
-        while (listIterator.hasPrevious()) {
-            if (listIterator.previous().equals(object)) {
-                return listIterator.previousIndex() + 1;
-            }
+        if (hasJSValueElements()) {
+            return looseIndexOf(object, true);
+        }
+        int count = size();
+        List<T> chunk = new ArrayList<>(Math.min(count, SNAPSHOT_CHUNK_SIZE));
+        for (int end = count; end > 0; end -= SNAPSHOT_CHUNK_SIZE) {
+            int start = Math.max(0, end - SNAPSHOT_CHUNK_SIZE);
+            chunk.clear();
+            convertedElements(chunk, mType, start, end - start);
+            int index = indexIn(chunk, object, true);
+            if (index >= 0) return start + index;
         }
         return -1;
     }
 
+    /**
+     * Searches 'elements' for 'object', comparing with the elements' equals(), as the List
+     * methods do
+     */
+    private static int indexIn(List<?> elements, Object object, boolean last) {
+        int count = elements.size();
+        for (int i=0; i<count; i++) {
+            int index = last ? count - 1 - i : i;
+            if (elements.get(index).equals(object)) return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Searches this array in JavaScript, comparing with ==, which is how JSValue.equals()
+     * compares values
+     */
+    private int looseIndexOf(Object object, boolean last) {
+        JSFunction indexOf = context.helperFunction("_looseIndexOf",
+                new String[] {"value","start","count","last"},
+                "for (var i=0; i<count; i++) {" +
+                "    var index = last ? count - 1 - i : i;" +
+                "    if (this[start + index] == value) return index;" +
+                "}" +
+                "return -1;");
+        return indexOf.call(this, object, rootIndex(0), size(), last).toNumber().intValue();
+    }
+
     /**
      * @see List#listIterator()
      * @since 3.0
@@ -499,7 +761,7 @@ public abstract class JSBaseArray<T> extends JSFunction implements List<T> {
         if (size() != otherList.size()) {
             return false;
         }
-        Iterator<T> iterator = iterator();
+        Iterator<T> iterator = snapshotIterator();
         Iterator<?> otherIterator = otherList.iterator();
         while (iterator.hasNext() && otherIterator.hasNext()) {
             T next = iterator.next();
@@ -518,7 +780,9 @@ public abstract class JSBaseArray<T> extends JSFunction implements List<T> {
     @Override
     public int hashCode() {
         int hashCode = 1;
-        for (T e : this) {
+        Iterator<T> iterator = snapshotIterator();
+        while (iterator.hasNext()) {
+            T e = iterator.next();
             hashCode = 31 * hashCode + (e == null ? 0 : e.hashCode());
         }
         return hashCode;
@@ -50,8 +50,12 @@ public class JSContext extends JSObject {
             if (deadReferences.size() > 100) {
                 cleanDeadReferences();
             }
+            if (++syncCount % 100 == 0) {
+                reapZombies();
+            }
         }
     });
+    private int syncCount = 0;
 
     protected void sync(Runnable runnable) {
         mWorker.sync(runnable);
@@ -290,7 +294,69 @@ public class JSContext extends JSObject {
         return evaluateScript(script,null,null,0);
     }
 
-    private Map<Long,WeakReference<JSObject>> objects = new HashMap<>();
+    private JNIReturnObject evaluateScriptAs(final String script, final int type) {
+        JNIReturnClass runnable = new JNIReturnClass() {
+            @Override public void run() {
+                JSString jsscript = new JSString(script);
+                jni = evaluateScriptAs(ctx, jsscript.stringRef(), 0L, 0L, 0, type);
+            }
+        };
+        sync(runnable);
+
+        if (runnable.jni.exception!=0) {
+            throwJSException(new JSException(new JSValue(runnable.jni.exception, context)));
+        }
+        return runnable.jni;
+    }
+
+    /**
+     * Executes the JavaScript code in 'script' in this context, and converts its return value
+     * to a number.  The conversion is made during the same call into JavaScriptCore, and no
+     * JSValue is created for the return value.
+     * @param script  The code to execute
+     * @return  The return value of 'script' as a number, or NaN if it threw an exception
+     * @since 3.1
+     */
+    public double evaluateDouble(String script) {
+        JNIReturnObject jni = evaluateScriptAs(script, TYPE_NUMBER);
+        return (jni.exception!=0) ? Double.NaN : jni.number;
+    }
+
+    /**
+     * Executes the JavaScript code in 'script' in this context, and converts its return value
+     * to a string.  The conversion is made during the same call into JavaScriptCore, and no
+     * JSValue is created for the return value.
+     * @param script  The code to execute
+     * @return  The return value of 'script' as a string, or null if it threw an exception
+     * @since 3.1
+     */
+    public String evaluateString(String script) {
+        return evaluateScriptAs(script, TYPE_STRING).string;
+    }
+
+    /**
+     * Executes the JavaScript code in 'script' in this context, and converts its return value
+     * to a boolean.  The conversion is made during the same call into JavaScriptCore, and no
+     * JSValue is created for the return value.
+     * @param script  The code to execute
+     * @return  The return value of 'script' as a boolean, or false if it threw an exception
+     * @since 3.1
+     */
+    public boolean evaluateBoolean(String script) {
+        return evaluateScriptAs(script, TYPE_BOOLEAN).bool;
+    }
+
+    /**
+     * Executes the JavaScript code in 'script' in this context, and discards its return value
+     * without creating a JSValue for it.
+     * @param script  The code to execute
+     * @since 3.1
+     */
+    public void evaluateVoid(String script) {
+        evaluateScriptAs(script, TYPE_UNDEFINED);
+    }
+
+    Map<Long,WeakReference<JSObject>> objects = new HashMap<>();
 
     /**
      * Keeps a reference to an object in this context.  This is used so that only one
@@ -321,13 +387,32 @@ public class JSContext extends JSObject {
      * @return The JSObject representing the reference
      */
     protected synchronized JSObject getObjectFromRef(long objRef,boolean create) {
+        return getObjectFromRef(objRef,create,true);
+    }
+    /**
+     * Reuses a stored reference to a JavaScript object if it exists, otherwise, it creates the
+     * reference.
+     * @param objRef the JavaScriptCore object reference
+     * @param create whether to create the object if it does not exist
+     * @param retain false if the object is only used for the duration of a callback, in which
+     *               case a zombie is not brought back under Java's ownership
+     * @since 3.1
+     * @return The JSObject representing the reference
+     */
+    protected synchronized JSObject getObjectFromRef(long objRef,boolean create,boolean retain) {
         if (objRef == valueRef()) return this;
         WeakReference<JSObject> wr = objects.get(objRef);
         JSObject obj = null;
         if (wr != null) {
             obj = wr.get();
-            if (obj != null)
+            if (obj != null && retain && zombies.containsKey(objRef)) {
+                // Java holds a zombie again.  Its JavaScript object keeps the protection
+                // taken by the caller until Java drops it, when it becomes a zombie again.
+                zombies.remove(objRef);
+                obj.revive();
+            } else if (obj != null) {
                 obj.unprotect(ctxRef(),obj.valueRef());
+            }
         }
         if (obj==null && create) {
             obj = new JSObject(objRef,this);
@@ -343,6 +428,195 @@ public class JSContext extends JSObject {
     protected synchronized JSObject getObjectFromRef(long objRef) {
         return getObjectFromRef(objRef,true);
     }
+    private final Map<JSFunction.Overloads,JSFunction> methodFunctions = new HashMap<>();
+
+    /**
+     * Gets the function shared by all objects in this context exposing 'overloads'.  The
+     * function invokes the best matching method on the Java object wrapping 'this', and is
+     * created on first use.  This is handled by JSHostObject, and should not need to be called
+     * by clients.
+     * @param overloads  The methods to expose
+     * @return the shared function
+     * @since 3.1
+     */
+    protected synchronized JSFunction methodFunction(JSFunction.Overloads overloads) {
+        JSFunction function = methodFunctions.get(overloads);
+        if (function == null) {
+            function = JSFunction.dispatchOnThis(this, overloads);
+            methodFunctions.put(overloads, function);
+        }
+        return function;
+    }
+
+    private final Map<Class<?>,JSObject> interfaceTemplates = new HashMap<>();
+
+    /**
+     * Gets the property descriptors shared by all objects in this context exposing interface
+     * 'iface', for use with Object.defineProperties().  There is one accessor for each method
+     * name in 'iface'.  On first read from an object, the accessor replaces itself with a
+     * small function which calls a native function shared by all the objects, passing it the
+     * object.  The template is created on first use.  This is handled by JSObject, and should
+     * not need to be called by clients.
+     * @param iface  The Java interface defining the methods to expose
+     * @return the shared property descriptors
+     * @since 3.1
+     */
+    protected synchronized JSObject interfaceTemplate(Class<?> iface) {
+        JSObject template = interfaceTemplates.get(iface);
+        if (template == null) {
+            Map<String,JSFunction.Overloads> table = JSFunction.Overloads.declaredBy(iface);
+            String [] names = table.keySet().toArray(new String[table.size()]);
+            JSValue [] functions = new JSValue[names.length];
+            for (int i=0; i<names.length; i++) {
+                functions[i] = JSFunction.dispatchOnHolder(this, table.get(names[i]));
+            }
+            JSFunction build = helperFunction("_interfaceTemplate",
+                    new String[] {"names","functions"},
+                    "var descriptors = {}; " +
+                    "names.forEach(function(name, i) { " +
+                    "    var shared = functions[i]; " +
+                    "    descriptors[name] = { enumerable: true, configurable: true, " +
+                    "        get: function() { " +
+                    "            var holder = this; " +
+                    "            var method = function() { " +
+                    "                var args = [holder]; " +
+                    "                args.push.apply(args, arguments); " +
+                    "                return shared.apply(this, args); " +
+                    "            }; " +
+                    "            Object.defineProperty(this, name, { value: method, " +
+                    "                writable: true, enumerable: true, configurable: true }); " +
+                    "            return method; " +
+                    "        }, " +
+                    "        set: function(value) { " +
+                    "            Object.defineProperty(this, name, { value: value, " +
+                    "                writable: true, enumerable: true, configurable: true }); " +
+                    "        } " +
+                    "    }; " +
+                    "}); " +
+                    "return descriptors;");
+            template = build.call(null, JSArray.ofStrings(this, names),
+                    new JSArray<>(this, functions, JSValue.class)).toObject();
+            interfaceTemplates.put(iface, template);
+        }
+        return template;
+    }
+
+    private final Map<String,JSFunction> helperFunctions = new HashMap<>();
+
+    /**
+     * Gets a helper function written in JavaScript, compiling it on first use in this context.
+     * Helpers are identified by 'name' alone, so each name must always be used with the same
+     * parameters and body.  This is handled by the wrapper classes, and should not need to be
+     * called by clients.
+     * @param name  The name of the helper function
+     * @param parameterNames  The names of its parameters
+     * @param body  The body of the function
+     * @return the compiled helper function
+     * @since 3.1
+     */
+    protected synchronized JSFunction helperFunction(String name, String[] parameterNames,
+                                                     String body) {
+        JSFunction helper = helperFunctions.get(name);
+        if (helper == null) {
+            helper = new JSFunction(this, name, parameterNames, body, null, 0);
+            helperFunctions.put(name, helper);
+        }
+        return helper;
+    }
+
+    private JSFunction callbackTrampoline;
+
+    /**
+     * Gets the function through which Java callbacks passed to JSArray's functional methods
+     * are invoked, creating it on first use in this context.  This is handled by JSArray, and
+     * should not need to be called by clients.
+     * @return the callback trampoline
+     * @since 3.1
+     */
+    protected synchronized JSFunction callbackTrampoline() {
+        if (callbackTrampoline == null) {
+            callbackTrampoline = new JSArray.CallbackTrampoline(this);
+        }
+        return callbackTrampoline;
+    }
+
+    private final Map<String,JSFunction> globalConstructors = new HashMap<>();
+
+    /**
+     * Gets a constructor of the global object, such as ArrayBuffer or Float32Array.  It is
+     * looked up on first use and then reused, so later constructions need neither the lookup
+     * nor a helper function.  This is handled by the typed array, JSArrayBuffer and JSDataView
+     * wrappers, and should not need to be called by clients.
+     * @param name  The name of the global constructor
+     * @return the constructor function
+     * @since 3.1
+     */
+    protected synchronized JSFunction globalConstructor(String name) {
+        JSFunction constructor = globalConstructors.get(name);
+        if (constructor == null) {
+            constructor = property(name).toFunction();
+            globalConstructors.put(name, constructor);
+        }
+        return constructor;
+    }
+
+    /**
+     * Calls global constructor 'name' with 'args', as 'new name(args)' in JavaScript, and
+     * wraps the result in a plain JSObject without inspecting its type.
+     * @param name  The name of the global constructor
+     * @param args  The arguments to pass to the constructor
+     * @return the new object
+     * @since 3.1
+     */
+    protected JSObject construct(final String name, final Object ... args) {
+        final JSObject [] object = new JSObject[1];
+        sync(new Runnable() {
+            @Override
+            public void run() {
+                long ref = globalConstructor(name).constructRef(args);
+                object[0] = new JSObject(ref, JSContext.this);
+                // The wrapper takes its own protection
+                unprotect(ctxRef(), ref);
+            }
+        });
+        return object[0];
+    }
+
+    final Map<Long,JSObject> zombies = new HashMap<>();
+
+    /**
+     * Takes ownership of an object which is no longer referenced from Java, but whose Java
+     * state must survive for as long as JavaScript can reach it.  The object is released once
+     * JavaScript collects it.  Should only be used from the 'finalize' object method.  This is
+     * handled by JSObject, and should not need to be called by clients.
+     * @param obj the JSObject to keep alive
+     * @since 3.1
+     */
+    protected synchronized void zombie(JSObject obj) {
+        zombies.put(obj.valueRef(), obj);
+        WeakReference<JSObject> wr = objects.get(obj.valueRef());
+        if (wr == null || wr.get() == null) {
+            objects.put(obj.valueRef(), new WeakReference<>(obj));
+        }
+        obj.unprotect();
+    }
+
+    private void reapZombies() {
+        if (ctx == null) return;
+        long [] finalized = drainFinalized(ctx);
+        synchronized (this) {
+            for (long objRef : finalized) {
+                JSObject obj = zombies.remove(objRef);
+                if (obj != null) {
+                    WeakReference<JSObject> wr = objects.get(objRef);
+                    if (wr != null && wr.get() == obj) {
+                        objects.remove(objRef);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Forces JavaScript garbage collection on this context
      * @since 1.0
@@ -353,6 +627,7 @@ public class JSContext extends JSObject {
             @Override
             public void run() {
                 garbageCollect(ctx);
+                reapZombies();
             }
         });
     }
@@ -365,9 +640,13 @@ public class JSContext extends JSObject {
     protected native long getGroup(long ctx);
     protected native long getGlobalObject(long ctx);
     protected native JNIReturnObject evaluateScript(long ctx, long script, long thisObject, long sourceURL, int startingLineNumber);
+    protected native JNIReturnObject evaluateScriptAs(long ctx, long script, long thisObject,
+                                                      long sourceURL, int startingLineNumber,
+                                                      int type);
     @SuppressWarnings("unused")
     protected native JNIReturnObject checkScriptSyntax(long ctx, long script, long sourceURL, int startingLineNumber);
     protected native void garbageCollect(long ctx);
+    protected native long[] drainFinalized(long ctx);
 
     static boolean isInit = false;
 
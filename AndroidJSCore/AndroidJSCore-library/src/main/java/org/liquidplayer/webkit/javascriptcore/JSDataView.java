@@ -32,6 +32,11 @@
 */
 package org.liquidplayer.webkit.javascriptcore;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.BitSet;
+
 /**
  * A wrapper class for a JavaScript DataView
  * See: https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/DataView
@@ -45,11 +50,7 @@ public class JSDataView extends JSObjectWrapper {
      * @since 3.0
      */
     public JSDataView(JSArrayBuffer buffer) {
-        super(new JSFunction(buffer.getJSObject().getContext(),
-                "_DataView",new String[] {"buffer"},
-
-                "return new DataView(buffer);",
-                null, 0).call(null,buffer).toObject());
+        super(buffer.getJSObject().getContext().construct("DataView",buffer));
     }
     /**
      * Creates a new DataView JavaScript object from ArrayBuffer 'buffer' starting from
@@ -59,11 +60,7 @@ public class JSDataView extends JSObjectWrapper {
      * @since 3.0
      */
     public JSDataView(JSArrayBuffer buffer, int byteOffset) {
-        super(new JSFunction(buffer.getJSObject().getContext(),
-                "_DataView1",new String[] {"buffer","byteOffset"},
-
-                "return new DataView(buffer,byteOffset);",
-                null, 0).call(null,buffer,byteOffset).toObject());
+        super(buffer.getJSObject().getContext().construct("DataView",buffer,byteOffset));
     }
     /**
      * Creates a new DataView JavaScript object from ArrayBuffer 'buffer' starting from
@@ -74,11 +71,8 @@ public class JSDataView extends JSObjectWrapper {
      * @since 3.0
      */
     public JSDataView(JSArrayBuffer buffer, int byteOffset, int byteLength) {
-        super(new JSFunction(buffer.getJSObject().getContext(),
-                "_DataView2",new String[] {"buffer","byteOffset","byteLength"},
-
-                "return new DataView(buffer,byteOffset,byteLength);",
-                null, 0).call(null,buffer,byteOffset,byteLength).toObject());
+        super(buffer.getJSObject().getContext().construct("DataView",buffer,byteOffset,
+                byteLength));
     }
 
     /**
@@ -411,5 +405,329 @@ public class JSDataView extends JSObjectWrapper {
     public void setUint8(int byteOffset, Byte value) {
         property("setUint8").toFunction().call(this,byteOffset,value);
     }
-    
+
+    /**
+     * Creates a Java-side mirror of this DataView, so that fields can be read and written
+     * without calling into JavaScript for each one.
+     * @return a new mirror over the bytes of this DataView
+     * @see Mirror
+     * @since 3.1
+     */
+    public Mirror mirror() {
+        return new Mirror(buffer(), byteOffset(), byteLength());
+    }
+
+    /**
+     * A Java-side view of the bytes of a DataView.  Its accessors read and write the bytes
+     * directly from Java, with the same semantics and defaults (big-endian) as the DataView
+     * methods of the same name.
+     * <p>
+     * If JSArrayBuffer.isByteBufferSupported() is true, the mirror shares its memory with the
+     * ArrayBuffer, and changes are visible on both sides immediately.  Otherwise, the mirror
+     * holds a copy of the bytes: refresh() reloads the copy after JavaScript has modified the
+     * buffer, and flush() writes changes made through the mirror back to the buffer.  Both are
+     * harmless no-ops on a shared mirror, so code which calls them works in either case.
+     * @since 3.1
+     */
+    public static class Mirror {
+        private final JSArrayBuffer arrayBuffer;
+        private final JSUint8Array copySource;
+        private final byte[] copy;
+        private final ByteBuffer bigEndian;
+        private final ByteBuffer littleEndian;
+        private final BitSet dirty;
+
+        private Mirror(JSArrayBuffer buffer, int byteOffset, int byteLength) {
+            arrayBuffer = buffer;
+            ByteBuffer bytes;
+            if (JSArrayBuffer.isByteBufferSupported()) {
+                // The mirror holds on to 'buffer', which keeps the ArrayBuffer alive
+                bytes = buffer.byteBufferView();
+                bytes.position(byteOffset);
+                bytes.limit(byteOffset + byteLength);
+                bytes = bytes.slice();
+                copySource = null;
+                copy = null;
+            } else {
+                copySource = new JSUint8Array(buffer, byteOffset, byteLength);
+                copy = new byte[byteLength];
+                bytes = ByteBuffer.wrap(copy);
+            }
+            bigEndian = bytes.duplicate().order(ByteOrder.BIG_ENDIAN);
+            littleEndian = bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            dirty = (copy == null) ? null : new BitSet(byteLength);
+            refresh();
+        }
+
+        /**
+         * Determines if this mirror shares its memory with the ArrayBuffer
+         * @return true if changes are visible without refresh() and flush()
+         * @since 3.1
+         */
+        public boolean isShared() {
+            return copy == null;
+        }
+
+        /**
+         * Gets the ArrayBuffer mirrored by this object
+         * @return the underlying JSArrayBuffer
+         * @since 3.1
+         */
+        public JSArrayBuffer buffer() {
+            return arrayBuffer;
+        }
+
+        /**
+         * Gets the length of the mirrored DataView
+         * @return the length in bytes
+         * @since 3.1
+         */
+        public int byteLength() {
+            return bigEndian.capacity();
+        }
+
+        /**
+         * Reloads the copied bytes from the ArrayBuffer, discarding any changes which have not
+         * been flushed
+         * @since 3.1
+         */
+        public void refresh() {
+            if (copy != null) {
+                copySource.get(copy, 0, copy.length);
+                dirty.clear();
+            }
+        }
+
+        /**
+         * Writes bytes changed through this mirror back to the ArrayBuffer.  Only the bytes
+         * written through the mirror are stored, so changes JavaScript made to other bytes
+         * are kept.
+         * @since 3.1
+         */
+        public void flush() {
+            if (copy == null) return;
+            for (int start = dirty.nextSetBit(0); start >= 0;
+                 start = dirty.nextSetBit(start)) {
+                int end = dirty.nextClearBit(start);
+                copySource.set(Arrays.copyOfRange(copy, start, end), start, end - start);
+                start = end;
+            }
+            dirty.clear();
+        }
+
+        private ByteBuffer order(boolean little) {
+            return little ? littleEndian : bigEndian;
+        }
+
+        private ByteBuffer write(int byteOffset, int size, boolean little) {
+            if (byteOffset < 0 || byteOffset + size > bigEndian.capacity()) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (copy != null) {
+                dirty.set(byteOffset, byteOffset + size);
+            }
+            return order(little);
+        }
+
+        /**
+         * @see JSDataView#getInt8(int)
+         * @since 3.1
+         */
+        public byte getInt8(int byteOffset) {
+            return bigEndian.get(byteOffset);
+        }
+        /**
+         * @see JSDataView#setInt8(int, Byte)
+         * @since 3.1
+         */
+        public void setInt8(int byteOffset, byte value) {
+            write(byteOffset, 1, false).put(byteOffset, value);
+        }
+        /**
+         * @see JSDataView#getUint8(int)
+         * @since 3.1
+         */
+        public int getUint8(int byteOffset) {
+            return bigEndian.get(byteOffset) & 0xff;
+        }
+        /**
+         * @see JSDataView#setUint8(int, Byte)
+         * @since 3.1
+         */
+        public void setUint8(int byteOffset, int value) {
+            setInt8(byteOffset, (byte) value);
+        }
+
+        /**
+         * @see JSDataView#getInt16(int, boolean)
+         * @since 3.1
+         */
+        public short getInt16(int byteOffset, boolean littleEndian) {
+            return order(littleEndian).getShort(byteOffset);
+        }
+        /**
+         * @see JSDataView#getInt16(int)
+         * @since 3.1
+         */
+        public short getInt16(int byteOffset) {
+            return getInt16(byteOffset, false);
+        }
+        /**
+         * @see JSDataView#setInt16(int, Short, boolean)
+         * @since 3.1
+         */
+        public void setInt16(int byteOffset, short value, boolean littleEndian) {
+            write(byteOffset, 2, littleEndian).putShort(byteOffset, value);
+        }
+        /**
+         * @see JSDataView#setInt16(int, Short)
+         * @since 3.1
+         */
+        public void setInt16(int byteOffset, short value) {
+            setInt16(byteOffset, value, false);
+        }
+        /**
+         * @see JSDataView#getUint16(int, boolean)
+         * @since 3.1
+         */
+        public int getUint16(int byteOffset, boolean littleEndian) {
+            return order(littleEndian).getShort(byteOffset) & 0xffff;
+        }
+        /**
+         * @see JSDataView#getUint16(int)
+         * @since 3.1
+         */
+        public int getUint16(int byteOffset) {
+            return getUint16(byteOffset, false);
+        }
+        /**
+         * @see JSDataView#setUint16(int, Short, boolean)
+         * @since 3.1
+         */
+        public void setUint16(int byteOffset, int value, boolean littleEndian) {
+            setInt16(byteOffset, (short) value, littleEndian);
+        }
+        /**
+         * @see JSDataView#setUint16(int, Short)
+         * @since 3.1
+         */
+        public void setUint16(int byteOffset, int value) {
+            setInt16(byteOffset, (short) value, false);
+        }
+
+        /**
+         * @see JSDataView#getInt32(int, boolean)
+         * @since 3.1
+         */
+        public int getInt32(int byteOffset, boolean littleEndian) {
+            return order(littleEndian).getInt(byteOffset);
+        }
+        /**
+         * @see JSDataView#getInt32(int)
+         * @since 3.1
+         */
+        public int getInt32(int byteOffset) {
+            return getInt32(byteOffset, false);
+        }
+        /**
+         * @see JSDataView#setInt32(int, Integer, boolean)
+         * @since 3.1
+         */
+        public void setInt32(int byteOffset, int value, boolean littleEndian) {
+            write(byteOffset, 4, littleEndian).putInt(byteOffset, value);
+        }
+        /**
+         * @see JSDataView#setInt32(int, Integer)
+         * @since 3.1
+         */
+        public void setInt32(int byteOffset, int value) {
+            setInt32(byteOffset, value, false);
+        }
+        /**
+         * @see JSDataView#getUint32(int, boolean)
+         * @since 3.1
+         */
+        public long getUint32(int byteOffset, boolean littleEndian) {
+            return order(littleEndian).getInt(byteOffset) & 0xffffffffL;
+        }
+        /**
+         * @see JSDataView#getUint32(int)
+         * @since 3.1
+         */
+        public long getUint32(int byteOffset) {
+            return getUint32(byteOffset, false);
+        }
+        /**
+         * @see JSDataView#setUint32(int, Long, boolean)
+         * @since 3.1
+         */
+        public void setUint32(int byteOffset, long value, boolean littleEndian) {
+            setInt32(byteOffset, (int) value, littleEndian);
+        }
+        /**
+         * @see JSDataView#setUint32(int, Long)
+         * @since 3.1
+         */
+        public void setUint32(int byteOffset, long value) {
+            setInt32(byteOffset, (int) value, false);
+        }
+
+        /**
+         * @see JSDataView#getFloat32(int, boolean)
+         * @since 3.1
+         */
+        public float getFloat32(int byteOffset, boolean littleEndian) {
+            return order(littleEndian).getFloat(byteOffset);
+        }
+        /**
+         * @see JSDataView#getFloat32(int)
+         * @since 3.1
+         */
+        public float getFloat32(int byteOffset) {
+            return getFloat32(byteOffset, false);
+        }
+        /**
+         * @see JSDataView#setFloat32(int, Float, boolean)
+         * @since 3.1
+         */
+        public void setFloat32(int byteOffset, float value, boolean littleEndian) {
+            write(byteOffset, 4, littleEndian).putFloat(byteOffset, value);
+        }
+        /**
+         * @see JSDataView#setFloat32(int, Float)
+         * @since 3.1
+         */
+        public void setFloat32(int byteOffset, float value) {
+            setFloat32(byteOffset, value, false);
+        }
+
+        /**
+         * @see JSDataView#getFloat64(int, boolean)
+         * @since 3.1
+         */
+        public double getFloat64(int byteOffset, boolean littleEndian) {
+            return order(littleEndian).getDouble(byteOffset);
+        }
+        /**
+         * @see JSDataView#getFloat64(int)
+         * @since 3.1
+         */
+        public double getFloat64(int byteOffset) {
+            return getFloat64(byteOffset, false);
+        }
+        /**
+         * @see JSDataView#setFloat64(int, Double, boolean)
+         * @since 3.1
+         */
+        public void setFloat64(int byteOffset, double value, boolean littleEndian) {
+            write(byteOffset, 8, littleEndian).putDouble(byteOffset, value);
+        }
+        /**
+         * @see JSDataView#setFloat64(int, Double)
+         * @since 3.1
+         */
+        public void setFloat64(int byteOffset, double value) {
+            setFloat64(byteOffset, value, false);
+        }
+    }
 }
@@ -126,19 +126,40 @@ public class JSFloat32Array extends JSTypedArray<Float> {
         return (JSFloat32Array)super.subarray(begin);
     }
 
-    private JSFloat32Array(JSFloat32Array superList, int leftBuffer, int rightBuffer) {
-        super(superList,leftBuffer,rightBuffer,Float.class);
-    }
     /**
+     * Gets a view of a range of this array, backed by a JavaScript subarray() over the same
+     * buffer, so that changes to either are seen in both
      * @see java.util.List#subList(int, int)
      * @since 3.0
      */
     @Override @NonNull
-    @SuppressWarnings("unchecked")
     public JSFloat32Array subList(final int fromIndex, final int toIndex) {
         if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
             throw new IndexOutOfBoundsException();
         }
-        return new JSFloat32Array(this,fromIndex,size()-toIndex);
+        return subarray(fromIndex,toIndex);
+    }
+
+    /**
+     * Copies 'len' elements, starting at element 'srcOff', into 'dst' in a single call.
+     * @param dst  the array to copy into, starting from its first element
+     * @param srcOff  the first element of this array to copy
+     * @param len  the number of elements to copy
+     * @since 3.1
+     */
+    public void get(float[] dst, int srcOff, int len) {
+        getElements(dst, srcOff, len);
+    }
+
+    /**
+     * Copies the first 'len' elements of 'src' into this array, starting at element 'dstOff',
+     * in a single call.
+     * @param src  the array to copy from, starting from its first element
+     * @param dstOff  the first element of this array to copy to
+     * @param len  the number of elements to copy
+     * @since 3.1
+     */
+    public void set(float[] src, int dstOff, int len) {
+        setElements(src, dstOff, len, false);
     }
 }
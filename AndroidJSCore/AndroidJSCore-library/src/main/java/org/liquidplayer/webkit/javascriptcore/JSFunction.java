@@ -36,6 +36,12 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * A JavaScript function object.
@@ -147,7 +153,7 @@ public class JSFunction extends JSObject {
         });
 
         context.persistObject(this);
-        context.zombies.add(this);
+        keepAlive = true;
     }
     /**
      * Creates a new function object which calls method 'method' on this Java object.
@@ -275,7 +281,7 @@ public class JSFunction extends JSObject {
      * </pre>
      *
      * @param ctx    The JSContext to create the object in
-     * @param methodName The method to invoke (searches for first instance)
+     * @param methodName The method to invoke (overloads are chosen by the arguments passed)
      * @param instanceClass The class to be created on 'new' call
      * @param invokeObject  The object on which to invoke the method
      * @since 3.0
@@ -287,12 +293,9 @@ public class JSFunction extends JSObject {
         context = ctx;
         this.invokeObject = (invokeObject==null) ? this : invokeObject;
         String name = (methodName==null) ? "__nullFunc" : methodName;
-        Method [] methods = this.invokeObject.getClass().getMethods();
-        for (Method method : methods) {
-            if (method.getName().equals(name)) {
-                this.method = method;
-                break;
-            }
+        overloads = Overloads.of(this.invokeObject.getClass()).get(name);
+        if (overloads != null) {
+            method = overloads.first;
         }
         if (method == null) {
             context.throwJSException(new JSException(context,"No such method. Did you make it public?"));
@@ -307,7 +310,7 @@ public class JSFunction extends JSObject {
         });
 
         context.persistObject(this);
-        context.zombies.add(this);
+        keepAlive = true;
     }
     /**
      * Creates a new function object which calls method 'methodName' on this Java object.
@@ -331,7 +334,7 @@ public class JSFunction extends JSObject {
      * </pre>
      *
      * @param ctx    The JSContext to create the object in
-     * @param methodName The method to invoke (searches for first instance)
+     * @param methodName The method to invoke (overloads are chosen by the arguments passed)
      * @param instanceClass The class to be created on 'new' call
      * @since 3.0
      */
@@ -362,7 +365,7 @@ public class JSFunction extends JSObject {
      * </pre>
      *
      * @param ctx    The JSContext to create the object in
-     * @param methodName The method to invoke (searches for first instance)
+     * @param methodName The method to invoke (overloads are chosen by the arguments passed)
      * @since 3.0
      */
     public JSFunction(JSContext ctx,
@@ -392,6 +395,18 @@ public class JSFunction extends JSObject {
     }
 
     private long [] argsToValueRefs(final Object[] args) {
+        return valueRefs(argsToValues(args));
+    }
+
+    private long [] valueRefs(List<JSValue> largs) {
+        long [] valueRefs = new long[largs.size()];
+        for (int i=0; i<largs.size(); i++) {
+            valueRefs[i] = largs.get(i).valueRef();
+        }
+        return valueRefs;
+    }
+
+    private List<JSValue> argsToValues(final Object[] args) {
         ArrayList<JSValue> largs = new ArrayList<>();
         if (args!=null) {
             for (Object o: args) {
@@ -408,11 +423,7 @@ public class JSFunction extends JSObject {
                 largs.add(v);
             }
         }
-        long [] valueRefs = new long[largs.size()];
-        for (int i=0; i<largs.size(); i++) {
-            valueRefs[i] = largs.get(i).valueRef();
-        }
-        return valueRefs;
+        return largs;
     }
 
     /**
@@ -446,6 +457,181 @@ public class JSFunction extends JSObject {
         return call(null);
     }
 
+    private JNIReturnObject callAs(final JSObject thiz, final Object[] args, final int type) {
+        JNIReturnClass runnable = new JNIReturnClass() {
+            @Override
+            public void run() {
+                jni = callAsFunctionAs(context.ctxRef(), valueRef, (thiz==null)?0L:thiz.valueRef(),
+                        argsToValueRefs(args), type);
+            }
+        };
+        context.sync(runnable);
+        if (runnable.jni.exception!=0) {
+            context.throwJSException(new JSException(new JSValue(runnable.jni.exception,context)));
+        }
+        return runnable.jni;
+    }
+
+    /**
+     * Calls this JavaScript function and converts its return value to a number.  The
+     * conversion is made during the same call into JavaScriptCore, and no JSValue is created
+     * for the return value.
+     * @param thiz  The 'this' object on which the function operates, null if not on a constructor object
+     * @param args  The argument list to be passed to the function
+     * @return The return value as a number, or NaN if the function threw an exception
+     * @since 3.1
+     */
+    public double callForDouble(final JSObject thiz, final Object ... args) {
+        JNIReturnObject jni = callAs(thiz, args, TYPE_NUMBER);
+        return (jni.exception!=0) ? Double.NaN : jni.number;
+    }
+
+    /**
+     * Calls this JavaScript function and converts its return value to a string.  The
+     * conversion is made during the same call into JavaScriptCore, and no JSValue is created
+     * for the return value.
+     * @param thiz  The 'this' object on which the function operates, null if not on a constructor object
+     * @param args  The argument list to be passed to the function
+     * @return The return value as a string, or null if the function threw an exception
+     * @since 3.1
+     */
+    public String callForString(final JSObject thiz, final Object ... args) {
+        return callAs(thiz, args, TYPE_STRING).string;
+    }
+
+    /**
+     * Calls this JavaScript function and converts its return value to a boolean.  The
+     * conversion is made during the same call into JavaScriptCore, and no JSValue is created
+     * for the return value.
+     * @param thiz  The 'this' object on which the function operates, null if not on a constructor object
+     * @param args  The argument list to be passed to the function
+     * @return The return value as a boolean, or false if the function threw an exception
+     * @since 3.1
+     */
+    public boolean callForBoolean(final JSObject thiz, final Object ... args) {
+        return callAs(thiz, args, TYPE_BOOLEAN).bool;
+    }
+
+    /**
+     * Calls this JavaScript function and discards its return value without creating a JSValue
+     * for it.
+     * @param thiz  The 'this' object on which the function operates, null if not on a constructor object
+     * @param args  The argument list to be passed to the function
+     * @since 3.1
+     */
+    public void callForVoid(final JSObject thiz, final Object ... args) {
+        callAs(thiz, args, TYPE_UNDEFINED);
+    }
+
+    /**
+     * Calls this JavaScript function once for each argument list in 'argsList', in a single
+     * trip to JavaScriptCore.  If a call throws, no further calls are made, and the exception is
+     * handled as it would be by call().
+     * @param thiz  The 'this' object on which the function operates, null if not on a constructor object
+     * @param argsList  The argument list of each call
+     * @return The JSValue returned by each call made
+     * @since 3.1
+     */
+    public List<JSValue> callBatch(final JSObject thiz, final List<Object[]> argsList) {
+        final List<JSValue> results = new ArrayList<>(argsList.size());
+        JNIReturnClass runnable = new JNIReturnClass() {
+            @Override
+            public void run() {
+                // Hold the converted arguments until all calls are made
+                List<List<JSValue>> values = new ArrayList<>(argsList.size());
+                long [][] args = new long[argsList.size()][];
+                for (int i=0; i<args.length; i++) {
+                    values.add(argsToValues(argsList.get(i)));
+                    args[i] = valueRefs(values.get(i));
+                }
+                long [] refs = new long[args.length];
+                jni = callAsFunctionBatch(context.ctxRef(), valueRef,
+                        (thiz==null)?0L:thiz.valueRef(), args, refs);
+                for (int i=0; i<refs.length && refs[i]!=0; i++) {
+                    results.add(new JSValue(refs[i],context));
+                    unprotect(context.ctxRef(), refs[i]);
+                }
+                values.clear();
+            }
+        };
+        context.sync(runnable);
+        if (runnable.jni.exception!=0) {
+            context.throwJSException(new JSException(new JSValue(runnable.jni.exception,context)));
+        }
+        return results;
+    }
+
+    /**
+     * Calls this JavaScript function once for each row of numeric arguments, in a single trip
+     * to JavaScriptCore.  The arguments are given by column, such that {@code columns[j][i]} is
+     * argument 'j' of call 'i', and each result is converted to a number.  If a call throws, no
+     * further calls are made, and the exception is handled as it would be by call().
+     * <p>
+     * Example:
+     * <pre>{@code
+     * JSFunction score = context.property("score").toFunction();
+     * double [] scores = score.callBatch(null, new double[][] { weights, heights });
+     * }
+     * </pre>
+     * @param thiz  The 'this' object on which the function operates, null if not on a constructor object
+     * @param columns  The arguments, by column; all columns must be of the same length
+     * @return The number returned by each call, NaN for calls not made
+     * @since 3.1
+     */
+    public double[] callBatch(final JSObject thiz, final double[][] columns) {
+        final double [] results = new double[(columns.length==0) ? 0 : columns[0].length];
+        for (double[] column : columns) {
+            if (column.length != results.length) {
+                throw new IllegalArgumentException("All columns must be of the same length");
+            }
+        }
+        Arrays.fill(results, Double.NaN);
+        JNIReturnClass runnable = new JNIReturnClass() {
+            @Override
+            public void run() {
+                jni = callAsFunctionBatchDouble(context.ctxRef(), valueRef,
+                        (thiz==null)?0L:thiz.valueRef(), columns, results);
+            }
+        };
+        context.sync(runnable);
+        if (runnable.jni.exception!=0) {
+            context.throwJSException(new JSException(new JSValue(runnable.jni.exception,context)));
+        }
+        return results;
+    }
+
+    /**
+     * Prepares repeated calls of this function on 'thiz' with 'argc' arguments.  The returned
+     * PreparedCall holds reusable argument slots, which are set from primitives, and can be
+     * invoked any number of times without allocating.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * JSFunction.PreparedCall call = function.prepare(thiz, 2);
+     * for (int i=0; i<xs.length; i++) {
+     *     ys[i] = call.setDouble(0, xs[i]).setString(1, units).invoke().getDouble();
+     * }
+     * }
+     * </pre>
+     * @param thiz  The 'this' object on which the function operates, null if not on a constructor object
+     * @param argc  The number of arguments to pass on each call
+     * @return a prepared call, with all arguments initially undefined
+     * @since 3.1
+     */
+    public PreparedCall prepare(JSObject thiz, int argc) {
+        return new PreparedCall(thiz, argc);
+    }
+
+    /**
+     * Prepares repeated calls of this function with 'argc' arguments and 'this' as null
+     * @param argc  The number of arguments to pass on each call
+     * @return a prepared call, with all arguments initially undefined
+     * @since 3.1
+     */
+    public PreparedCall prepare(int argc) {
+        return prepare(null, argc);
+    }
+
     /**
      * Calls this JavaScript function as a constructor, i.e. same as calling 'new func(args)'
      * @param args The argument list to be passed to the function
@@ -463,6 +649,25 @@ public class JSFunction extends JSObject {
         return context.getObjectFromRef(testException(runnable.jni));
     }
 
+    /**
+     * Calls this JavaScript function as a constructor, as newInstance() does, but returns the
+     * reference of the new object without wrapping it.  The reference is protected, and the
+     * caller is responsible for unprotecting it.
+     * @param args The argument list to be passed to the function
+     * @return the protected reference of the instance object
+     * @since 3.1
+     */
+    protected long constructRef(final Object ... args) {
+        JNIReturnClass runnable = new JNIReturnClass() {
+            @Override
+            public void run() {
+                jni = callAsConstructor(context.ctxRef(), valueRef, argsToValueRefs(args));
+            }
+        };
+        context.sync(runnable);
+        return testException(runnable.jni);
+    }
+
     /**
      * Gets the prototype object, if it exists
      * @return A JSValue referencing the prototype object, or null if none
@@ -492,6 +697,7 @@ public class JSFunction extends JSObject {
             @Override
             public void run() {
                 setPrototype(context.ctxRef(), valueRef, proto.valueRef());
+                hasExplicitPrototype = true;
             }
         });
     }
@@ -505,12 +711,23 @@ public class JSFunction extends JSObject {
         try {
             JSValue [] args = new JSValue[argumentsValueRef.length];
             for (int i=0; i<argumentsValueRef.length; i++) {
-                JSObject obj = context.getObjectFromRef(argumentsValueRef[i],false);
+                JSObject obj = context.getObjectFromRef(argumentsValueRef[i],false,false);
                 if (obj!=null) args[i] = obj;
                 else args[i] = new JSValue(argumentsValueRef[i],context);
             }
-            JSObject thiz = context.getObjectFromRef(thisObjectRef);
-            JSValue value = function(thiz,args,invokeObject);
+            JSObject thiz = context.getObjectFromRef(thisObjectRef,true,false);
+            JSObject receiver;
+            if (dispatchesOnHolder) {
+                // The caller passes the object the method was read from ahead of the arguments
+                JSObject holder = (args.length > 0 &&
+                        isObject(context.ctxRef(), argumentsValueRef[0])) ?
+                        context.getObjectFromRef(argumentsValueRef[0],true,false) : null;
+                args = Arrays.copyOfRange(args, Math.min(1, args.length), args.length);
+                receiver = receiver(holder);
+            } else {
+                receiver = (invokeObject==null) ? receiver(thiz) : invokeObject;
+            }
+            JSValue value = function(thiz,args,receiver);
             setException(0L, exceptionRefRef);
             return value.valueRef();
         } catch (JSException e) {
@@ -520,11 +737,69 @@ public class JSFunction extends JSObject {
         }
     }
 
+    /**
+     * Creates a function which invokes one of 'overloads' on the Java object wrapping the
+     * JavaScript 'this' of each call, rather than on a fixed object.  A single such function
+     * can be shared by every object exposing the methods.
+     * @param ctx    The JSContext to create the function in
+     * @param overloads The methods to invoke
+     * @return a function which dispatches on 'this'
+     * @since 3.1
+     */
+    static JSFunction dispatchOnThis(JSContext ctx, Overloads overloads) {
+        JSFunction function = new JSFunction(ctx, overloads.first, JSObject.class);
+        function.invokeObject = null;
+        function.overloads = overloads;
+        return function;
+    }
+
+    /**
+     * Creates a function which invokes one of 'overloads' on the Java object wrapping its
+     * first argument, passing it the remaining arguments.  The JavaScript 'this' of the call
+     * is still available to the method through getThis().  A single such function can be
+     * shared by every object exposing the methods, with a JavaScript wrapper per object
+     * supplying that object as the first argument.
+     * @param ctx    The JSContext to create the function in
+     * @param overloads The methods to invoke
+     * @return a function which dispatches on its first argument
+     * @since 3.1
+     */
+    static JSFunction dispatchOnHolder(JSContext ctx, Overloads overloads) {
+        JSFunction function = dispatchOnThis(ctx, overloads);
+        function.dispatchesOnHolder = true;
+        return function;
+    }
+
+    /**
+     * Finds the Java object on which to invoke a 'this'-dispatched method.  This is the
+     * first object in the prototype chain of 'thiz' which implements the method, much like
+     * JavaScript's own method lookup.
+     */
+    private JSObject receiver(JSObject thiz) {
+        Class<?> declaringClass = (overloads==null) ? method.getDeclaringClass() : overloads.owner;
+        JSObject obj = thiz;
+        while (obj != null && !declaringClass.isInstance(obj)) {
+            long proto = getPrototype(context.ctxRef(), obj.valueRef());
+            if (isObject(context.ctxRef(), proto)) {
+                obj = context.getObjectFromRef(proto,true,false);
+            } else {
+                unprotect(context.ctxRef(), proto);
+                obj = null;
+            }
+        }
+        if (obj == null) {
+            throw new JSException(context, method.getName() + " called on an object which " +
+                    "does not implement " + declaringClass.getName());
+        }
+        return obj;
+    }
+
     protected JSValue function(JSObject thiz, JSValue [] args) {
         return function(thiz,args,this);
     }
 
     protected JSValue function(JSObject thiz, JSValue [] args, final JSObject invokeObject) {
+        Method method = (overloads==null) ? this.method : overloads.select(args);
         Class<?>[] pType  = method.getParameterTypes();
         Object [] passArgs = new Object[pType.length];
         for (int i=0; i<passArgs.length; i++) {
@@ -573,22 +848,24 @@ public class JSFunction extends JSObject {
         JSObjectReturnClass runnable = new JSObjectReturnClass() {
             @Override
             public JSObject execute() {
-                JSObject proto = context.getObjectFromRef(getPrototype(context.ctxRef(),valueRef()));
+                // Link new instances to the prototype rather than copying its properties, so
+                // that construction costs the same regardless of the size of the prototype.
+                // An explicitly set prototype wins; otherwise follow the 'prototype' property
+                // like 'new' does, and never Function.prototype
+                JSValue proto = hasExplicitPrototype ? prototype() : property("prototype");
                 try {
                     Constructor<?> defaultConstructor = subclass.getConstructor();
                     JSObject thiz = (JSObject) defaultConstructor.newInstance();
                     thiz.context = context;
-                    thiz.valueRef = make(context.ctxRef(), 0); //makeInstance(context.ctxRef());
+                    thiz.valueRef = thiz.makeInstance(context.ctxRef());
+                    if (proto != null && proto.isObject()) {
+                        setPrototype(context.ctxRef(), thiz.valueRef(), proto.valueRef());
+                    }
                     thiz.isInstanceOf = JSFunction.this;
                     thiz.property("constructor",JSFunction.this,JSObject.JSPropertyAttributeDontEnum);
                     function(thiz,args);
                     context.persistObject(thiz);
-                    context.zombies.add(thiz);
-                    if (proto != null) {
-                        for (String prop : proto.propertyNames()) {
-                            thiz.property(prop, proto.property(prop));
-                        }
-                    }
+                    thiz.keepAlive = true;
                     return thiz;
                 } catch (NoSuchMethodException e) {
                     String error = e.toString() + "If " + subclass.getName() + " is an embedded " +
@@ -617,7 +894,7 @@ public class JSFunction extends JSObject {
         try {
             JSValue [] args = new JSValue[argumentsValueRef.length];
             for (int i=0; i<argumentsValueRef.length; i++) {
-                JSObject obj = context.getObjectFromRef(argumentsValueRef[i],false);
+                JSObject obj = context.getObjectFromRef(argumentsValueRef[i],false,false);
                 if (obj!=null) args[i] = obj;
                 else args[i] = new JSValue(argumentsValueRef[i],context);
             }
@@ -650,5 +927,391 @@ public class JSFunction extends JSObject {
     }
 
     protected Method method = null;
+    private Overloads overloads = null;
     private JSObject invokeObject = null;
+    private boolean dispatchesOnHolder = false;
+    private boolean hasExplicitPrototype = false;
+
+    /**
+     * A reusable call of a JSFunction with a fixed 'this' and number of arguments, much like a
+     * prepared statement.  Arguments are held in slots which keep their values between calls.
+     * The result of the most recent call is converted to a primitive as part of the call, and
+     * is available from the typed getters.  A PreparedCall is not thread safe.
+     * @since 3.1
+     */
+    public class PreparedCall {
+        private final JSObject thiz;
+        private final int argc;
+        // Slot 'argc' of each array holds the result
+        private final int [] kinds;
+        private final double [] numbers;
+        private final long [] refs;
+        private final String [] strings;
+        private final JSValue [] values;
+        private long exception;
+
+        private final Runnable invoker = new Runnable() {
+            @Override
+            public void run() {
+                exception = callAsFunctionPrepared(context.ctxRef(), valueRef,
+                        (thiz==null) ? 0L : thiz.valueRef(), kinds, numbers, refs, strings);
+            }
+        };
+
+        private PreparedCall(JSObject thiz, int argc) {
+            this.thiz = thiz;
+            this.argc = argc;
+            kinds = new int[argc+1];
+            numbers = new double[argc+1];
+            refs = new long[argc+1];
+            strings = new String[argc];
+            values = new JSValue[argc];
+            numbers[argc] = Double.NaN;
+        }
+
+        private PreparedCall set(int index, int kind, double number, String string,
+                                 JSValue value) {
+            if (index < 0 || index >= argc) {
+                throw new IndexOutOfBoundsException("Argument " + index + " of " + argc);
+            }
+            kinds[index] = kind;
+            numbers[index] = number;
+            strings[index] = string;
+            values[index] = value;
+            refs[index] = (value == null) ? 0L : value.valueRef();
+            return this;
+        }
+
+        /**
+         * Sets argument 'index' to a number
+         * @param index  The argument index
+         * @param value  The number
+         * @return this PreparedCall
+         * @since 3.1
+         */
+        public PreparedCall setDouble(int index, double value) {
+            return set(index, TYPE_NUMBER, value, null, null);
+        }
+
+        /**
+         * Sets argument 'index' to a number
+         * @param index  The argument index
+         * @param value  The number
+         * @return this PreparedCall
+         * @since 3.1
+         */
+        public PreparedCall setInt(int index, int value) {
+            return set(index, TYPE_NUMBER, value, null, null);
+        }
+
+        /**
+         * Sets argument 'index' to a boolean
+         * @param index  The argument index
+         * @param value  The boolean
+         * @return this PreparedCall
+         * @since 3.1
+         */
+        public PreparedCall setBoolean(int index, boolean value) {
+            return set(index, TYPE_BOOLEAN, value ? 1 : 0, null, null);
+        }
+
+        /**
+         * Sets argument 'index' to a string
+         * @param index  The argument index
+         * @param value  The string, or null for JavaScript null
+         * @return this PreparedCall
+         * @since 3.1
+         */
+        public PreparedCall setString(int index, String value) {
+            return set(index, (value == null) ? TYPE_NULL : TYPE_STRING, 0, value, null);
+        }
+
+        /**
+         * Sets argument 'index' to a JavaScript value
+         * @param index  The argument index
+         * @param value  The value, or null for JavaScript null
+         * @return this PreparedCall
+         * @since 3.1
+         */
+        public PreparedCall setValue(int index, JSValue value) {
+            return set(index, (value == null) ? TYPE_NULL : TYPE_OBJECT, 0, null, value);
+        }
+
+        /**
+         * Sets argument 'index' to null
+         * @param index  The argument index
+         * @return this PreparedCall
+         * @since 3.1
+         */
+        public PreparedCall setNull(int index) {
+            return set(index, TYPE_NULL, 0, null, null);
+        }
+
+        /**
+         * Sets argument 'index' to undefined
+         * @param index  The argument index
+         * @return this PreparedCall
+         * @since 3.1
+         */
+        public PreparedCall setUndefined(int index) {
+            return set(index, TYPE_UNDEFINED, 0, null, null);
+        }
+
+        /**
+         * Calls the function with the current arguments.  If the function throws, the
+         * exception is handled as it would be by call(), and the result is undefined.
+         * @return this PreparedCall
+         * @since 3.1
+         */
+        public PreparedCall invoke() {
+            context.sync(invoker);
+            if (exception != 0) {
+                numbers[argc] = Double.NaN;
+                context.throwJSException(new JSException(new JSValue(exception,context)));
+            }
+            return this;
+        }
+
+        /**
+         * Gets the result of the last call as a number
+         * @return the result, converted as by JavaScript's Number()
+         * @since 3.1
+         */
+        public double getDouble() {
+            if (kinds[argc] == TYPE_OBJECT) return getValue().toNumber();
+            return numbers[argc];
+        }
+
+        /**
+         * Gets the result of the last call as an integer
+         * @return the result, converted as by JavaScript's Number() and truncated
+         * @since 3.1
+         */
+        public int getInt() {
+            return (int) getDouble();
+        }
+
+        /**
+         * Gets the result of the last call as a boolean
+         * @return the result, converted as by JavaScript's Boolean()
+         * @since 3.1
+         */
+        public boolean getBoolean() {
+            switch (kinds[argc]) {
+                case TYPE_UNDEFINED:
+                case TYPE_NULL:
+                    return false;
+                case TYPE_BOOLEAN:
+                case TYPE_NUMBER:
+                    return numbers[argc] != 0 && !Double.isNaN(numbers[argc]);
+                case TYPE_OBJECT:
+                    return true;
+                default:
+                    return getValue().toBoolean();
+            }
+        }
+
+        /**
+         * Gets the result of the last call as a string
+         * @return the result, converted as by JavaScript's String()
+         * @since 3.1
+         */
+        public String getString() {
+            switch (kinds[argc]) {
+                case TYPE_UNDEFINED:
+                    return "undefined";
+                case TYPE_NULL:
+                    return "null";
+                case TYPE_BOOLEAN:
+                    return (numbers[argc] != 0) ? "true" : "false";
+                default:
+                    return getValue().toString();
+            }
+        }
+
+        /**
+         * Gets the result of the last call
+         * @return the result
+         * @since 3.1
+         */
+        public JSValue getValue() {
+            return new JSValue(refs[argc], context);
+        }
+
+        @Override
+        protected void finalize() throws Throwable {
+            super.finalize();
+            if (refs[argc] != 0 && !context.isDefunct) {
+                context.markForUnprotection(refs[argc]);
+            }
+        }
+    }
+
+    /**
+     * The public methods of a class which share a name, indexed by parameter count.  Tables
+     * are built once per class.  On each call, the overload taking as many parameters as there
+     * are arguments is chosen.  Only if there are several of those are the JavaScript types of
+     * the arguments examined.
+     * @since 3.1
+     */
+    static class Overloads {
+        /**
+         * The class for which the table was built
+         */
+        final Class<?> owner;
+        /**
+         * The first method found with this name, used when there is no better match
+         */
+        final Method first;
+        private final Method[][] byArity;
+        private final boolean overloaded;
+
+        private Overloads(Class<?> owner, List<Method> methods) {
+            this.owner = owner;
+            first = methods.get(0);
+            overloaded = methods.size() > 1;
+            int maxArity = 0;
+            for (Method m : methods) {
+                maxArity = Math.max(maxArity, m.getParameterTypes().length);
+            }
+            List<List<Method>> lists = new ArrayList<>();
+            for (int i=0; i<=maxArity; i++) lists.add(new ArrayList<Method>());
+            for (Method m : methods) {
+                lists.get(m.getParameterTypes().length).add(m);
+            }
+            byArity = new Method[maxArity+1][];
+            for (int i=0; i<=maxArity; i++) {
+                byArity[i] = (lists.get(i).isEmpty()) ? null :
+                        lists.get(i).toArray(new Method[lists.get(i).size()]);
+            }
+        }
+
+        /**
+         * Chooses the method to invoke for 'args'.  Missing arguments are passed as null and
+         * extra arguments are ignored, so if no overload takes exactly as many parameters,
+         * the closest one taking more is preferred, then the closest one taking fewer.
+         * @param args  The arguments passed from JavaScript
+         * @return the method to invoke
+         */
+        Method select(JSValue [] args) {
+            if (!overloaded) return first;
+            Method[] candidates = null;
+            for (int i=args.length; candidates==null && i<byArity.length; i++) {
+                candidates = byArity[i];
+            }
+            for (int i=Math.min(args.length,byArity.length-1); candidates==null && i>=0; i--) {
+                candidates = byArity[i];
+            }
+            if (candidates == null) return first;
+            if (candidates.length == 1) return candidates[0];
+
+            int [] types = new int[args.length];
+            for (int i=0; i<args.length; i++) {
+                if (args[i] == null) types[i] = TYPE_UNDEFINED;
+                else if (args[i] instanceof JSObject) types[i] = TYPE_OBJECT;
+                else types[i] = args[i].getType(args[i].context.ctxRef(), args[i].valueRef());
+            }
+            Method best = candidates[0];
+            int bestScore = -1;
+            for (Method m : candidates) {
+                Class<?>[] pType = m.getParameterTypes();
+                int score = 0;
+                for (int i=0; i<pType.length && i<types.length; i++) {
+                    score += score(pType[i], types[i]);
+                }
+                if (score > bestScore) {
+                    best = m;
+                    bestScore = score;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Rates how well a JavaScript value of type 'jsType' converts to 'type': 2 for a
+         * natural match, 1 for a parameter accepting any value, 0 otherwise
+         */
+        private static int score(Class<?> type, int jsType) {
+            if (type == Object.class || type == JSValue.class) return 1;
+            switch (jsType) {
+                case TYPE_BOOLEAN:
+                    return (type == boolean.class || type == Boolean.class) ? 2 : 0;
+                case TYPE_NUMBER:
+                    return (type == double.class || type == Double.class ||
+                            type == int.class    || type == Integer.class ||
+                            type == long.class   || type == Long.class ||
+                            type == float.class  || type == Float.class ||
+                            type == short.class  || type == Short.class ||
+                            type == byte.class   || type == Byte.class) ? 2 : 0;
+                case TYPE_STRING:
+                    return (type == String.class) ? 2 : 0;
+                case TYPE_OBJECT:
+                    return (JSObject.class.isAssignableFrom(type) || type.isArray() ||
+                            Map.class.isAssignableFrom(type) ||
+                            List.class.isAssignableFrom(type)) ? 2 : 0;
+                case TYPE_UNDEFINED:
+                case TYPE_NULL:
+                default:
+                    return type.isPrimitive() ? 0 : 1;
+            }
+        }
+
+        private static final Map<Class<?>,Map<String,Overloads>> tables = new HashMap<>();
+        private static final Map<Class<?>,Map<String,Overloads>> declaredTables = new HashMap<>();
+
+        /**
+         * Gets the overloads of each public method of 'cls', by name
+         * @param cls  The class
+         * @return a map of method name to overloads
+         */
+        static Map<String,Overloads> of(Class<?> cls) {
+            synchronized (tables) {
+                Map<String,Overloads> table = tables.get(cls);
+                if (table == null) {
+                    table = build(cls, Arrays.asList(cls.getMethods()));
+                    tables.put(cls, table);
+                }
+                return table;
+            }
+        }
+
+        /**
+         * Gets the overloads of each method declared by interface 'iface', by name
+         * @param iface  The interface
+         * @return a map of method name to overloads
+         */
+        static Map<String,Overloads> declaredBy(Class<?> iface) {
+            synchronized (declaredTables) {
+                Map<String,Overloads> table = declaredTables.get(iface);
+                if (table == null) {
+                    table = build(iface, Arrays.asList(iface.getDeclaredMethods()));
+                    declaredTables.put(iface, table);
+                }
+                return table;
+            }
+        }
+
+        /**
+         * Groups 'methods' by name
+         * @param owner  The class on which the methods will be invoked
+         * @param methods  The methods
+         * @return a map of method name to overloads, in the order first found
+         */
+        static Map<String,Overloads> build(Class<?> owner, Collection<Method> methods) {
+            Map<String,List<Method>> byName = new LinkedHashMap<>();
+            for (Method m : methods) {
+                List<Method> list = byName.get(m.getName());
+                if (list == null) {
+                    list = new ArrayList<>();
+                    byName.put(m.getName(), list);
+                }
+                list.add(m);
+            }
+            Map<String,Overloads> table = new LinkedHashMap<>();
+            for (Map.Entry<String,List<Method>> entry : byName.entrySet()) {
+                table.put(entry.getKey(), new Overloads(owner, entry.getValue()));
+            }
+            return table;
+        }
+    }
 }
@@ -0,0 +1,199 @@
+//
+// JSHostObject.java
+// AndroidJSCore project
+//
+// https://github.com/ericwlange/AndroidJSCore/
+//
+// Created by Eric Lange
+//
+/*
+ Copyright (c) 2014-2016 Eric Lange. All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met:
+
+ - Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer.
+
+ - Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.liquidplayer.webkit.javascriptcore;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A JavaScript object whose properties are resolved from Java on demand.  Where
+ * JSObject(JSContext, Class) defines a function property for every method up front, a
+ * JSHostObject answers property lookups from JavaScript as they happen, so its setup cost
+ * does not depend on the number of members exposed.
+ * <p>
+ * By default, the public methods of the exposed interface are presented as functions, with
+ * overloads chosen by the arguments passed.  The method table is built once per class, and
+ * each function is created once per context, on first access.  Subclasses may override
+ * hasMember(), getMember() and memberNames() to expose other content, such as the entries of
+ * a large Java Map.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * public class Api extends JSHostObject {
+ *     public Api(JSContext ctx) {
+ *         super(ctx);
+ *     }
+ *     public int add(int a, int b) {
+ *         return a + b;
+ *     }
+ * }
+ *
+ * context.property("api", new Api(context));
+ * context.evaluateScript("api.add(1,2)"); // 3
+ * }
+ * </pre>
+ * @since 3.1
+ */
+public class JSHostObject extends JSObject {
+
+    /**
+     * Creates a new host object exposing the methods of interface 'iface'.  This object must
+     * implement 'iface'.
+     * @param ctx    The JSContext to create the object in
+     * @param iface  The Java interface defining the methods to expose to JavaScript
+     * @since 3.1
+     */
+    public JSHostObject(JSContext ctx, Class<?> iface) {
+        context = ctx;
+        members = memberTable((iface == null) ? getClass() : iface);
+        context.sync(new Runnable() {
+            @Override
+            public void run() {
+                valueRef = makeHostObject(context.ctxRef());
+            }
+        });
+        context.persistObject(this);
+        keepAlive = true;
+    }
+
+    /**
+     * Creates a new host object exposing the public methods declared by subclasses of
+     * JSHostObject.
+     * @param ctx    The JSContext to create the object in
+     * @since 3.1
+     */
+    public JSHostObject(JSContext ctx) {
+        this(ctx, null);
+    }
+
+    /**
+     * Determines if a member named 'name' is exposed to JavaScript.  Called whenever JavaScript
+     * looks up a property on this object.
+     * @param name  The property name
+     * @return true if 'name' is resolved by getMember(), false to fall through to the prototype
+     * @since 3.1
+     */
+    protected boolean hasMember(String name) {
+        return members.containsKey(name);
+    }
+
+    /**
+     * Resolves the member named 'name'.  Called only if hasMember() returned true.
+     * @param name  The property name
+     * @return The value of the member, or null to fall through to the prototype
+     * @since 3.1
+     */
+    protected JSValue getMember(String name) {
+        JSFunction.Overloads overloads = members.get(name);
+        return (overloads == null) ? null : context.methodFunction(overloads);
+    }
+
+    /**
+     * Gets the names of the members to be enumerated in JavaScript
+     * @return an array of member names
+     * @since 3.1
+     */
+    protected String[] memberNames() {
+        return members.keySet().toArray(new String[members.size()]);
+    }
+
+    private final Map<String,JSFunction.Overloads> members;
+
+    private static final Map<Class<?>,Map<String,JSFunction.Overloads>> memberTables =
+            new HashMap<>();
+
+    private static Map<String,JSFunction.Overloads> memberTable(Class<?> cls) {
+        synchronized (memberTables) {
+            Map<String,JSFunction.Overloads> table = memberTables.get(cls);
+            if (table == null) {
+                List<Method> methods = new ArrayList<>();
+                boolean hostClass = JSHostObject.class.isAssignableFrom(cls);
+                for (Method method : cls.getMethods()) {
+                    Class<?> declaringClass = method.getDeclaringClass();
+                    if (Modifier.isStatic(method.getModifiers())) continue;
+                    if (hostClass && (declaringClass == JSHostObject.class ||
+                            !JSHostObject.class.isAssignableFrom(declaringClass))) continue;
+                    methods.add(method);
+                }
+                table = JSFunction.Overloads.build(cls, methods);
+                memberTables.put(cls, table);
+            }
+            return table;
+        }
+    }
+
+    @SuppressWarnings("unused") // This is called directly from native code
+    private boolean hasPropertyCallback(long ctxRef, long objectRef, String propertyName) {
+        // Nothing may be thrown back into native code, and there is no way to report an
+        // error from here, so treat the property as missing
+        try {
+            return hasMember(propertyName);
+        } catch (Throwable e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unused") // This is called directly from native code
+    private long getPropertyCallback(long ctxRef, long objectRef, String propertyName,
+                                     long exceptionRefRef) {
+        try {
+            JSValue value = getMember(propertyName);
+            return (value == null) ? 0L : value.valueRef();
+        } catch (JSException e) {
+            setException(e.getError().valueRef(), exceptionRefRef);
+            return 0L;
+        } catch (Throwable e) {
+            e.printStackTrace();
+            setException(new JSException(context, e.toString()).getError().valueRef(),
+                    exceptionRefRef);
+            return 0L;
+        }
+    }
+
+    @SuppressWarnings("unused") // This is called directly from native code
+    private String[] getPropertyNamesCallback(long ctxRef, long objectRef) {
+        try {
+            return memberNames();
+        } catch (Throwable e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    protected native long makeHostObject(long ctx);
+}
@@ -126,20 +126,40 @@ public class JSInt8Array extends JSTypedArray<Byte> {
         return (JSInt8Array)super.subarray(begin);
     }
 
-    private JSInt8Array(JSInt8Array superList, int leftBuffer, int rightBuffer) {
-        super(superList,leftBuffer,rightBuffer,Byte.class);
-    }
     /**
+     * Gets a view of a range of this array, backed by a JavaScript subarray() over the same
+     * buffer, so that changes to either are seen in both
      * @see java.util.List#subList(int, int)
      * @since 3.0
      */
     @Override @NonNull
-    @SuppressWarnings("unchecked")
     public JSInt8Array subList(final int fromIndex, final int toIndex) {
         if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
             throw new IndexOutOfBoundsException();
         }
-        return new JSInt8Array(this,fromIndex,size()-toIndex);
+        return subarray(fromIndex,toIndex);
+    }
+
+    /**
+     * Copies 'len' elements, starting at element 'srcOff', into 'dst' in a single call.
+     * @param dst  the array to copy into, starting from its first element
+     * @param srcOff  the first element of this array to copy
+     * @param len  the number of elements to copy
+     * @since 3.1
+     */
+    public void get(byte[] dst, int srcOff, int len) {
+        getElements(dst, srcOff, len);
     }
 
+    /**
+     * Copies the first 'len' elements of 'src' into this array, starting at element 'dstOff',
+     * in a single call.
+     * @param src  the array to copy from, starting from its first element
+     * @param dstOff  the first element of this array to copy to
+     * @param len  the number of elements to copy
+     * @since 3.1
+     */
+    public void set(byte[] src, int dstOff, int len) {
+        setElements(src, dstOff, len, false);
+    }
 }
@@ -32,7 +32,10 @@
 */
 package org.liquidplayer.webkit.javascriptcore;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * A JavaScript iterator interface shadow object
@@ -66,6 +69,13 @@ public class JSIterator<T> extends JSObjectWrapper implements Iterator<T> {
         }
     }
 
+    /**
+     * The number of results read at a time by the iterators returned from JSArray's
+     * entries(), keys() and values()
+     * @since 3.1
+     */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
     /**
      * Wraps a JavaScript iterator in a Java iterator
      * @param iterator the JavaScript iterator object.  Assumes the object is a properly formed JS
@@ -73,24 +83,102 @@ public class JSIterator<T> extends JSObjectWrapper implements Iterator<T> {
      */
     public JSIterator(JSObject iterator) {
         super(iterator);
+        nextFunction = iterator.property("next").toFunction();
+        batchSize = 0;
         next = _jsnext();
     }
+
+    /**
+     * Wraps a JavaScript iterator in a Java iterator which reads up to 'batchSize' results at
+     * a time.  Each batch is drained from the JavaScript iterator, and its values extracted and
+     * converted, in a constant number of native calls, however large it is.  The JavaScript
+     * iterator is advanced ahead of the Java one by up to 'batchSize' results, and it is not
+     * advanced again once it is done.  jsnext() returns results rebuilt from the batch.
+     * @param iterator the JavaScript iterator object.  Assumes the object is a properly formed JS
+     *                 iterator
+     * @param batchSize the maximum number of results to read at a time
+     * @since 3.1
+     */
+    public JSIterator(JSObject iterator, int batchSize) {
+        super(iterator);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        nextFunction = iterator.property("next").toFunction();
+        this.batchSize = batchSize;
+    }
+
+    private final JSFunction nextFunction;
+    private final int batchSize;
     private Next next = null;
+    private final List<T> batch = new ArrayList<>();
+    private JSArray<JSValue> batchValues = null;
+    private int batchNext = 0;
+    private boolean done = false;
 
     private Next _jsnext() {
-        return new Next(getJSObject().property("next").toFunction().call(getJSObject()).toObject());
+        return new Next(nextFunction.call(getJSObject()).toObject());
     }
 
     /**
-     * The 'next' JavaScript iterator object
+     * The 'next' JavaScript iterator object.  On a batched iterator, the result has already
+     * been read from JavaScript, and a new result object with the same 'done' and 'value' is
+     * returned.
      * @return the next JSObject in the JSIterator
      */
     public Next jsnext() {
+        if (batchSize > 0) {
+            JSObject result = new JSObject(context);
+            if (hasNext()) {
+                result.property("done", false);
+                result.property("value", batchValues.get(batchNext++));
+            } else {
+                result.property("done", true);
+                result.property("value", new JSValue(context));
+            }
+            return new Next(result);
+        }
         Next ret = next;
         next = _jsnext();
         return ret;
     }
 
+    /**
+     * Converts a batch of values read from the JavaScript iterator, and appends them to 'out'.
+     * By default, the values are passed through as JSValues.  Subclasses may override this to
+     * convert the whole batch at once.
+     * @param values the values read from the JavaScript iterator
+     * @param count the number of values in 'values'
+     * @param out the list to append the converted values to
+     * @since 3.1
+     */
+    @SuppressWarnings("unchecked")
+    protected void convertBatch(JSArray<JSValue> values, int count, List<T> out) {
+        values.convertedElements((List<Object>) out, JSValue.class, 0, count);
+    }
+
+    private void readBatch() {
+        JSFunction drain = context.helperFunction("_drainIterator",
+                new String[] {"iterator", "next", "count"},
+                "var values = []; " +
+                "for (var i = 0; i < count; i++) { " +
+                "    var result = next.call(iterator); " +
+                "    if (result.done) break; " +
+                "    values.push(result.value); " +
+                "} " +
+                "return values;");
+        @SuppressWarnings("unchecked")
+        JSArray<JSValue> values = (JSArray<JSValue>)
+                drain.call(null, getJSObject(), nextFunction, batchSize).toJSArray();
+        int count = values.size();
+        batch.clear();
+        batchNext = 0;
+        batchValues = values;
+        convertBatch(values, count, batch);
+        // A short batch means the JavaScript iterator is done
+        done = count < batchSize;
+    }
+
     /**
      * @see Iterator#next()
      * @return next value in the iterator
@@ -98,6 +186,12 @@ public class JSIterator<T> extends JSObjectWrapper implements Iterator<T> {
     @Override
     @SuppressWarnings("unchecked")
     public T next() {
+        if (batchSize > 0) {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return batch.get(batchNext++);
+        }
         return (T) jsnext().value();
     }
 
@@ -107,6 +201,12 @@ public class JSIterator<T> extends JSObjectWrapper implements Iterator<T> {
      */
     @Override
     public boolean hasNext() {
+        if (batchSize > 0) {
+            if (batchNext >= batch.size() && !done) {
+                readBatch();
+            }
+            return batchNext < batch.size();
+        }
         return !next.done();
     }
 
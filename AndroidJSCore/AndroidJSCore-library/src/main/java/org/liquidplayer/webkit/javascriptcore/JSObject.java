@@ -33,8 +33,6 @@
 package org.liquidplayer.webkit.javascriptcore;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -123,6 +121,11 @@ public class JSObject extends JSValue {
      * </pre>
      * Where func1, func2, etc. are defined in interface 'iface'.  This JSObject
      * must implement 'iface'.
+     * <p>
+     * The native functions behind the methods are created once per context and interface.
+     * Each object only gets its properties, defined in a single call from a shared template,
+     * so creating one does not create any functions.  A method is always invoked on the
+     * object it was read from, even when it is called detached or with another 'this'.
      *
      * @param ctx   The JSContext to create the object in
      * @param iface The Java Interface defining the methods to expose to JavaScript
@@ -133,16 +136,16 @@ public class JSObject extends JSValue {
         context.sync(new Runnable() {
             @Override
             public void run() {
-                valueRef = make(context.ctxRef(), 0L);
-                Method[] methods = iface.getDeclaredMethods();
-                for (Method m : methods) {
-                    JSObject f = new JSFunction(context, m,
-                            JSObject.class, JSObject.this);
-                    property(m.getName(), f);
-                }
+                valueRef = makeInstance(context.ctxRef());
             }
         });
         context.persistObject(this);
+        // The shared functions find this object through the context, so keep it for as long
+        // as JavaScript can reach it
+        keepAlive = true;
+        context.helperFunction("_defineProperties", new String[] {"object","descriptors"},
+                "Object.defineProperties(object, descriptors);")
+                .call(null, this, context.interfaceTemplate(iface));
     }
 
     /**
@@ -318,21 +321,31 @@ public class JSObject extends JSValue {
         StringArrayReturnClass runnable = new StringArrayReturnClass() {
             @Override
             public void run() {
-                long propertyNameArray = copyPropertyNames(context.ctxRef(), valueRef);
-                long[] refs = getPropertyNames(propertyNameArray);
-                String[] names = new String[refs.length];
-                for (int i = 0; i < refs.length; i++) {
-                    JSString name = new JSString(refs[i]);
-                    names[i] = name.toString();
-                }
-                releasePropertyNames(propertyNameArray);
-                sArray = names;
+                sArray = copyPropertyNameStrings(context.ctxRef(), valueRef);
             }
         };
         context.sync(runnable);
         return runnable.sArray;
     }
 
+    /**
+     * Counts the property names on the object, as propertyNames() would return them, without
+     * copying the names
+     *
+     * @return the number of property names
+     * @since 3.1
+     */
+    public int propertyCount() {
+        final int [] count = new int[1];
+        context.sync(new Runnable() {
+            @Override
+            public void run() {
+                count[0] = countPropertyNames(context.ctxRef(), valueRef);
+            }
+        });
+        return count[0];
+    }
+
     /**
      * Determines if the object is a function
      *
@@ -374,12 +387,46 @@ public class JSObject extends JSValue {
         return valueRef().intValue();
     }
 
-    protected final List<JSObject> zombies = new ArrayList<>();
+    /**
+     * Set on objects whose Java state must survive for as long as JavaScript can reach them,
+     * such as host functions and constructed instances.  These must be backed by a native
+     * Instance, so that the context learns when JavaScript collects them.
+     */
+    protected boolean keepAlive = false;
 
     @Override
     protected void finalize() throws Throwable {
-        super.finalize();
-        context.finalizeObject(this);
+        if (keepAlive && !context.isDefunct) {
+            // No longer referenced from Java, but possibly still from JavaScript.  The context
+            // keeps this object alive until JavaScript collects it.
+            context.zombie(this);
+        } else {
+            super.finalize();
+            context.finalizeObject(this);
+        }
+    }
+
+    private Object reviveGuardian = null;
+
+    /**
+     * Called when Java takes back a zombie.  Java runs an object's own finalize() only once, so
+     * a fresh guardian, reachable only through this object, hands it back to the context the
+     * next time Java drops it.
+     */
+    protected void revive() {
+        reviveGuardian = new Object() {
+            @Override
+            protected void finalize() throws Throwable {
+                try {
+                    if (!context.isDefunct) {
+                        reviveGuardian = null;
+                        context.zombie(JSObject.this);
+                    }
+                } finally {
+                    super.finalize();
+                }
+            }
+        };
     }
 
     protected void setThis(JSObject thiz) {
@@ -402,11 +449,26 @@ public class JSObject extends JSValue {
 
     protected native long make(long ctx, long data);
 
-    @SuppressWarnings("unused")
     protected native long makeInstance(long ctx);
 
     protected native JNIReturnObject makeArray(long ctx, long[] args);
 
+    protected native JNIReturnObject makeArrayFromNumbers(long ctx, double[] numbers);
+
+    protected native JNIReturnObject makeArrayFromInts(long ctx, int[] numbers);
+
+    protected native JNIReturnObject makeArrayFromStrings(long ctx, String[] strings);
+
+    protected native JNIReturnObject getElementsAs(long ctx, long object, int start, Object dst,
+                                                   int type);
+
+    protected native JNIReturnObject makeArrayFromValues(long ctx, int[] kinds, double[] numbers,
+                                                         long[] refs, String[] strings);
+
+    protected native JNIReturnObject setElementsFromValues(long ctx, long object, int start,
+                                                           int[] kinds, double[] numbers,
+                                                           long[] refs, String[] strings);
+
     protected native JNIReturnObject makeDate(long ctx, long[] args);
 
     protected native JNIReturnObject makeError(long ctx, long[] args);
@@ -439,6 +501,20 @@ public class JSObject extends JSValue {
 
     protected native JNIReturnObject callAsFunction(long ctx, long object, long thisObject, long[] args);
 
+    protected native JNIReturnObject callAsFunctionAs(long ctx, long object, long thisObject,
+                                                      long[] args, int type);
+
+    protected native JNIReturnObject callAsFunctionBatch(long ctx, long object, long thisObject,
+                                                         long[][] args, long[] results);
+
+    protected native JNIReturnObject callAsFunctionBatchDouble(long ctx, long object,
+                                                               long thisObject, double[][] columns,
+                                                               double[] results);
+
+    protected native long callAsFunctionPrepared(long ctx, long object, long thisObject,
+                                                 int[] kinds, double[] numbers, long[] refs,
+                                                 String[] strings);
+
     protected native boolean isConstructor(long ctx, long object);
 
     protected native JNIReturnObject callAsConstructor(long ctx, long object, long[] args);
@@ -449,6 +525,10 @@ public class JSObject extends JSValue {
 
     protected native void releasePropertyNames(long propertyNameArray);
 
+    protected native String[] copyPropertyNameStrings(long ctx, long object);
+
+    protected native int countPropertyNames(long ctx, long object);
+
     protected native long makeFunctionWithCallback(long ctx, long name);
 
     protected native JNIReturnObject makeFunction(long ctx, long name, long[] parameterNames,
@@ -36,10 +36,12 @@ import android.support.annotation.NonNull;
 
 import java.util.AbstractList;
 import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -107,7 +109,7 @@ public class JSObjectPropertiesMap<V> extends JSObjectWrapper implements Map<Str
      */
     @Override
     public int size() {
-        return propertyNames().length;
+        return propertyCount();
     }
 
     /**
@@ -222,7 +224,7 @@ public class JSObjectPropertiesMap<V> extends JSObjectWrapper implements Map<Str
             public V get(final int index)
             {
                 String [] propertyNames = propertyNames();
-                if (index > propertyNames.length)
+                if (index < 0 || index >= propertyNames.length)
                 {
                     throw new IndexOutOfBoundsException();
                 }
@@ -232,7 +234,28 @@ public class JSObjectPropertiesMap<V> extends JSObjectWrapper implements Map<Str
             @Override
             public int size()
             {
-                return propertyNames().length;
+                return propertyCount();
+            }
+
+            @Override
+            public @NonNull Iterator<V> iterator() {
+                final Iterator<Entry<String,V>> entries = new SetIterator();
+                return new Iterator<V>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public V next() {
+                        return entries.next().getValue();
+                    }
+
+                    @Override
+                    public void remove() {
+                        entries.remove();
+                    }
+                };
             }
 
             @Override
@@ -242,69 +265,83 @@ public class JSObjectPropertiesMap<V> extends JSObjectWrapper implements Map<Str
         };
     }
 
-    private class SetIterator implements Iterator<Entry<String,V>> {
-        private String current = null;
-        private String removal = null;
+    /**
+     * An entry whose value was read with the others in its chunk.  Setting the value writes
+     * it through to the object.
+     */
+    private class PropertyEntry implements Entry<String,V> {
+        private final String key;
+        private V value;
 
-        public SetIterator() {
-            String [] properties = propertyNames();
-            if (properties.length > 0)
-                current = properties[0];
+        PropertyEntry(String key, V value) {
+            this.key = key;
+            this.value = value;
         }
 
         @Override
-        public boolean hasNext() {
-            if (current==null) return false;
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            this.value = value;
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) return false;
+            Entry<?,?> e = (Entry<?,?>) o;
+            return key.equals(e.getKey()) &&
+                    (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /**
+     * Iterates over a snapshot of the property names, taken in a single native call when the
+     * iterator is created.  The values are read JSBaseArray.SNAPSHOT_CHUNK_SIZE properties at
+     * a time, each chunk in a constant number of calls.  Properties deleted after the snapshot
+     * was taken are skipped, and properties added after it are not seen.
+     */
+    private class SetIterator implements Iterator<Entry<String,V>> {
+        private final String [] names = propertyNames();
+        private int nextName = 0;
+        private final List<Entry<String,V>> chunk = new ArrayList<>();
+        private int nextEntry = 0;
+        private String removal = null;
 
-            // Make sure 'current' still exists
-            String [] properties = propertyNames();
-            for (String prop : properties) {
-                if (current.equals(prop)) return true;
+        @Override
+        public boolean hasNext() {
+            while (nextEntry >= chunk.size() && nextName < names.length) {
+                readChunk();
             }
-            return false;
+            return nextEntry < chunk.size();
         }
 
         @Override
-        @SuppressWarnings("unchecked")
         public Entry<String,V> next() {
-            if (current == null)
+            if (!hasNext())
                 throw new NoSuchElementException();
 
-            String [] properties = propertyNames();
-            Entry<String,V> entry = null;
-            int i = 0;
-            for (; i<properties.length; i++) {
-                if (current.equals(properties[i])) {
-                    final Object key = properties[i];
-                    entry = new Entry<String, V>() {
-                        @Override
-                        public String getKey() {
-                            return (String) key;
-                        }
-
-                        @Override
-                        public V getValue() {
-                            return get(key);
-                        }
-
-                        @Override
-                        public V setValue(V object) {
-                            return put((String)key,object);
-                        }
-                    };
-                    break;
-                }
-            }
-            removal = current;
-            if (i+1 < properties.length)
-                current = properties[i+1];
-            else
-                current = null;
-
-            if (entry != null)
-                return entry;
-            else
-                throw new NoSuchElementException();
+            Entry<String,V> entry = chunk.get(nextEntry++);
+            removal = entry.getKey();
+            return entry;
         }
 
         @Override
@@ -315,6 +352,38 @@ public class JSObjectPropertiesMap<V> extends JSObjectWrapper implements Map<Str
             deleteProperty(removal);
             removal = null;
         }
+
+        @SuppressWarnings("unchecked")
+        private void readChunk() {
+            int count = Math.min(JSBaseArray.SNAPSHOT_CHUNK_SIZE, names.length - nextName);
+            String [] keys = Arrays.copyOfRange(names, nextName, nextName + count);
+            nextName += count;
+            chunk.clear();
+            nextEntry = 0;
+
+            // state: 0 if the property has since been deleted, 1 if it is undefined, 2 otherwise
+            JSFunction read = context.helperFunction("_readProperties",
+                    new String[] {"names"},
+                    "var values = [], state = []; " +
+                    "for (var i = 0; i < names.length; i++) { " +
+                    "    var present = names[i] in this; " +
+                    "    var value = present ? this[names[i]] : undefined; " +
+                    "    values.push(value); " +
+                    "    state.push(!present ? 0 : (value === undefined) ? 1 : 2); " +
+                    "} " +
+                    "return [values, state];");
+            JSObject result = read.call(getJSObject(), JSArray.ofStrings(context, keys)).toObject();
+            List<V> values = new ArrayList<>(count);
+            result.propertyAtIndex(0).toJSArray().convertedElements(values, mType, 0, count);
+            List<Integer> state = new ArrayList<>(count);
+            result.propertyAtIndex(1).toJSArray().convertedElements(state, Integer.class, 0,
+                    count);
+            for (int i=0; i<count; i++) {
+                if (state.get(i) == 0) continue;
+                // As in get(), undefined values are null
+                chunk.add(new PropertyEntry(keys[i], (state.get(i) == 1) ? null : values.get(i)));
+            }
+        }
     }
 
     /**
@@ -332,7 +401,7 @@ public class JSObjectPropertiesMap<V> extends JSObjectWrapper implements Map<Str
 
             @Override
             public int size() {
-                return propertyNames().length;
+                return propertyCount();
             }
         };
     }
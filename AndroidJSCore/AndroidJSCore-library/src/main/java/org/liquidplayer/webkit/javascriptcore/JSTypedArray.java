@@ -32,6 +32,15 @@
 */
 package org.liquidplayer.webkit.javascriptcore;
 
+import android.annotation.TargetApi;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
 /**
  * A convenience base class for JavaScript typed arrays.  This is an abstract class, and is
  * subclassed by JSInt8Array, JSInt16Array, JSInt32Array, JSUint8Array, JSUint16Array,
@@ -41,82 +50,50 @@ package org.liquidplayer.webkit.javascriptcore;
  */
 public abstract class JSTypedArray<T> extends JSBaseArray<T> {
 
+    private abstract class JNIReturnClass implements Runnable {
+        JNIReturnObject jni;
+    }
+
     protected JSTypedArray(JSContext ctx, int length, String jsConstructor, Class<T> cls) {
         super(ctx,cls);
-        JSFunction constructor = new JSFunction(context,"_" + jsConstructor,new String[] {"length"},
-                "return new " + jsConstructor + "(length);",
-                null, 0);
-        JSValue newArray = constructor.call(null,length);
-        valueRef = newArray.valueRef();
-        protect(context.ctxRef(), valueRef);
+        valueRef = context.globalConstructor(jsConstructor).constructRef(length);
         context.persistObject(this);
     }
 
     protected JSTypedArray(JSTypedArray typedArray, String jsConstructor, Class<T> cls) {
         super(typedArray.context, cls);
-        JSFunction constructor = new JSFunction(context,"_" + jsConstructor,new String[] {"tarr"},
-                "return new " + jsConstructor + "(tarr);",
-                null, 0);
-        JSValue newArray = constructor.call(null,typedArray);
-        valueRef = newArray.valueRef();
-        protect(context.ctxRef(), valueRef);
+        valueRef = context.globalConstructor(jsConstructor).constructRef(typedArray);
         context.persistObject(this);
     }
 
     protected JSTypedArray(JSContext ctx, Object object, String jsConstructor, Class<T> cls) {
         super(ctx,cls);
-        context = ctx;
-        JSFunction constructor = new JSFunction(context,"_" + jsConstructor,new String[] {"obj"},
-                "return new " + jsConstructor + "(obj);",
-                null, 0);
-        JSValue newArray = constructor.call(null,object);
-        valueRef = newArray.valueRef();
-        protect(context.ctxRef(), valueRef);
+        valueRef = context.globalConstructor(jsConstructor).constructRef(object);
         context.persistObject(this);
     }
 
     protected JSTypedArray(JSArrayBuffer buffer, int byteOffset, int length, String jsConstructor,
                         Class<T> cls) {
         super(buffer.getJSObject().getContext(),cls);
-        JSFunction constructor = new JSFunction(context,"_" + jsConstructor,
-                new String[] {"buffer,byteOffset,length"},
-                "return new " + jsConstructor + "(buffer,byteOffset,length);",
-                null, 0);
-        JSValue newArray = constructor.call(null,buffer.getJSObject(),byteOffset,length);
-        valueRef = newArray.valueRef();
-        protect(context.ctxRef(), valueRef);
+        valueRef = context.globalConstructor(jsConstructor)
+                .constructRef(buffer.getJSObject(),byteOffset,length);
         context.persistObject(this);
     }
     protected JSTypedArray(JSArrayBuffer buffer, int byteOffset, String jsConstructor,
                         Class<T> cls) {
         super(buffer.getJSObject().getContext(),cls);
-        JSFunction constructor = new JSFunction(context,"_" + jsConstructor,
-                new String[] {"buffer,byteOffset"},
-                "return new " + jsConstructor + "(buffer,byteOffset);",
-                null, 0);
-        JSValue newArray = constructor.call(null,buffer.getJSObject(),byteOffset);
-        valueRef = newArray.valueRef();
-        protect(context.ctxRef(), valueRef);
+        valueRef = context.globalConstructor(jsConstructor)
+                .constructRef(buffer.getJSObject(),byteOffset);
         context.persistObject(this);
     }
     protected JSTypedArray(JSArrayBuffer buffer, String jsConstructor, Class<T> cls) {
         super(buffer.getJSObject().getContext(),cls);
-        JSFunction constructor = new JSFunction(context,"_" + jsConstructor,
-                new String[] {"buffer"},
-                "return new " + jsConstructor + "(buffer);",
-                null, 0);
-        JSValue newArray = constructor.call(null,buffer.getJSObject());
-        valueRef = newArray.valueRef();
-        protect(context.ctxRef(), valueRef);
+        valueRef = context.globalConstructor(jsConstructor).constructRef(buffer.getJSObject());
         context.persistObject(this);
     }
     protected JSTypedArray(long objRef, JSContext ctx, Class<T> cls) {
         super(objRef,ctx,cls);
     }
-    @SuppressWarnings("unchecked")
-    protected JSTypedArray(JSTypedArray superList, int leftBuffer, int rightBuffer, Class<T> cls) {
-        super(superList,leftBuffer,rightBuffer,cls);
-    }
 
     /**
      * JavaScript: TypedArray.from(), see:
@@ -197,21 +174,289 @@ public abstract class JSTypedArray<T> extends JSBaseArray<T> {
         return property("byteOffset").toNumber().intValue();
     }
 
+    private int length = -1;
+
+    /**
+     * The length of a typed array is fixed when it is created, so it is read from JavaScript
+     * only once.
+     * @see java.util.List#size()
+     * @since 3.1
+     */
     @Override
-    protected JSValue arrayElement(final int index) {
-        JSFunction getElement = new JSFunction(context,"_getElement",new String[]{"thiz","index"},
-                "return thiz[index]",
-                null, 0);
-        return getElement.call(null,this,index);
+    public int size() {
+        if (length < 0) {
+            length = super.size();
+        }
+        return length;
     }
 
-    @Override
-    protected void arrayElement(final int index, final T value) {
-        JSFunction setElement = new JSFunction(context,"_setElement",
-                new String[]{"thiz","index","value"},
-                "thiz[index] = value",
-                null, 0);
-        setElement.call(null,this,index,value);
+    private void checkRange(int index, int length, int arrayLength) {
+        if (index < 0 || length < 0 || length > arrayLength || index + length > size()) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * Copies 'len' elements, starting at element 'srcOff', into the primitive array 'dst' in a
+     * single native call.  Used by subclasses to implement typed bulk access.
+     * @param dst  a byte[], short[], int[], long[], float[] or double[] array
+     * @param srcOff  the first element to copy
+     * @param len  the number of elements to copy
+     * @since 3.1
+     */
+    protected void getElements(final Object dst, final int srcOff, final int len) {
+        checkRange(srcOff, len, Array.getLength(dst));
+        JNIReturnClass runnable = new JNIReturnClass() {
+            @Override
+            public void run() {
+                jni = getElements(context.ctxRef(), valueRef, srcOff, dst, len);
+            }
+        };
+        context.sync(runnable);
+        if (runnable.jni.exception!=0) {
+            context.throwJSException(new JSException(new JSValue(runnable.jni.exception,context)));
+        }
+    }
+
+    /**
+     * Copies the first 'len' elements of the primitive array 'src' into this array, starting
+     * at element 'dstOff', in a single native call.  Used by subclasses to implement typed bulk
+     * access.
+     * @param src  a byte[], short[], int[], long[], float[] or double[] array
+     * @param dstOff  the first element to copy to
+     * @param len  the number of elements to copy
+     * @param isUnsigned  true if the elements of 'src' are to be treated as unsigned
+     * @since 3.1
+     */
+    protected void setElements(final Object src, final int dstOff, final int len,
+                               final boolean isUnsigned) {
+        checkRange(dstOff, len, Array.getLength(src));
+        JNIReturnClass runnable = new JNIReturnClass() {
+            @Override
+            public void run() {
+                jni = setElements(context.ctxRef(), valueRef, dstOff, src, len, isUnsigned);
+            }
+        };
+        context.sync(runnable);
+        if (runnable.jni.exception!=0) {
+            context.throwJSException(new JSException(new JSValue(runnable.jni.exception,context)));
+        }
+    }
+
+    /**
+     * Gets the element at 'index' as a double, without boxing it
+     * @param index  the index of the element
+     * @return the element value
+     * @since 3.1
+     */
+    public double getDouble(final int index) {
+        checkRange(index, 1, 1);
+        return accessNumber(index, 0, false);
+    }
+
+    /**
+     * Gets the element at 'index' as an int, without boxing it.  Fractional values are
+     * truncated, and JSUint32Array elements above Integer.MAX_VALUE wrap to negative values;
+     * use JSUint32Array.getLong() to read them unsigned.
+     * @param index  the index of the element
+     * @return the element value
+     * @since 3.1
+     */
+    public int getInt(int index) {
+        return (int) (long) getDouble(index);
+    }
+
+    /**
+     * Sets the element at 'index' from a double, without boxing it.  The value is converted to
+     * the element type by the same rules as in JavaScript.
+     * @param index  the index of the element
+     * @param value  the new value
+     * @since 3.1
+     */
+    public void setDouble(final int index, final double value) {
+        checkRange(index, 1, 1);
+        accessNumber(index, value, true);
+    }
+
+    /**
+     * Reads or writes a single element.  Each array keeps one for reuse, so that getDouble()
+     * and setDouble() do not allocate; a call made while it is in use takes a new one.
+     */
+    private class NumberAccess implements Runnable {
+        int index;
+        double number;
+        boolean write;
+
+        @Override
+        public void run() {
+            if (write) {
+                setNumberAtIndex(context.ctxRef(), valueRef, index, number);
+            } else {
+                number = getNumberAtIndex(context.ctxRef(), valueRef, index);
+            }
+        }
+    }
+    private final NumberAccess numberAccess = new NumberAccess();
+    private final AtomicBoolean numberAccessInUse = new AtomicBoolean(false);
+
+    private double accessNumber(int index, double number, boolean write) {
+        boolean reuse = numberAccessInUse.compareAndSet(false, true);
+        NumberAccess access = reuse ? numberAccess : new NumberAccess();
+        try {
+            access.index = index;
+            access.number = number;
+            access.write = write;
+            context.sync(access);
+            return access.number;
+        } finally {
+            if (reuse) {
+                numberAccessInUse.set(false);
+            }
+        }
+    }
+
+    /**
+     * Sets the element at 'index' from an int, without boxing it.  The value is converted to
+     * the element type by the same rules as in JavaScript.
+     * @param index  the index of the element
+     * @param value  the new value
+     * @since 3.1
+     */
+    public void setInt(int index, int value) {
+        setDouble(index, value);
+    }
+
+    private static final int ITERATOR_CHUNK = 256;
+
+    /**
+     * Reads the elements of a typed array in chunks, with a single native call for each chunk.
+     * Subclasses return the elements as unboxed primitives.
+     * @since 3.1
+     */
+    public abstract class ChunkIterator {
+        private int next = 0;
+        private int chunkStart = 0;
+        private int chunkLength = 0;
+        private final int size = size();
+
+        protected abstract void fetch(int start, int length);
+
+        /**
+         * Tests if there are any more elements to read
+         * @return true if there are more elements, false otherwise
+         * @since 3.1
+         */
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        protected int nextIndex() {
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            if (next >= chunkStart + chunkLength) {
+                chunkStart = next;
+                chunkLength = Math.min(ITERATOR_CHUNK, size - next);
+                fetch(chunkStart, chunkLength);
+            }
+            return next++ - chunkStart;
+        }
+    }
+
+    /**
+     * Gets an iterator over the elements as ints, as by getInt().  Elements are read in chunks
+     * with a single native call each, and are not boxed.  Changes made to the array while
+     * iterating may not be seen by the iterator.
+     * @return an iterator over the elements of this array
+     * @since 3.1
+     */
+    public IntChunkIterator intIterator() {
+        return new IntChunkIterator();
+    }
+
+    /**
+     * Gets an iterator over the elements as doubles, as by getDouble().  Elements are read in
+     * chunks with a single native call each, and are not boxed.  Changes made to the array
+     * while iterating may not be seen by the iterator.
+     * @return an iterator over the elements of this array
+     * @since 3.1
+     */
+    public DoubleChunkIterator doubleIterator() {
+        return new DoubleChunkIterator();
+    }
+
+    /**
+     * Gets a stream of the elements as ints, as by getInt().  All of the elements are read in
+     * a single native call when the stream is created, so the stream, sequential or parallel,
+     * works on plain Java data and does not see later changes to the array.
+     * @return a stream of the elements of this array
+     * @since 3.1
+     */
+    @TargetApi(24)
+    public IntStream intStream() {
+        int [] elements = new int[size()];
+        getElements(elements, 0, elements.length);
+        return Arrays.stream(elements);
+    }
+
+    /**
+     * Gets a stream of the elements as doubles, as by getDouble().  All of the elements are
+     * read in a single native call when the stream is created, so the stream, sequential or
+     * parallel, works on plain Java data and does not see later changes to the array.
+     * @return a stream of the elements of this array
+     * @since 3.1
+     */
+    @TargetApi(24)
+    public DoubleStream doubleStream() {
+        double [] elements = new double[size()];
+        getElements(elements, 0, elements.length);
+        return Arrays.stream(elements);
+    }
+
+    /**
+     * Reads the elements of a typed array as ints, as by getInt()
+     * @since 3.1
+     */
+    public class IntChunkIterator extends ChunkIterator {
+        private final int [] chunk = new int[ITERATOR_CHUNK];
+
+        @Override
+        protected void fetch(int start, int length) {
+            getElements(chunk, start, length);
+        }
+
+        /**
+         * Gets the next element
+         * @return the next element as an int
+         * @throws NoSuchElementException if there are no more elements
+         * @since 3.1
+         */
+        public int nextInt() {
+            return chunk[nextIndex()];
+        }
+    }
+
+    /**
+     * Reads the elements of a typed array as doubles, as by getDouble()
+     * @since 3.1
+     */
+    public class DoubleChunkIterator extends ChunkIterator {
+        private final double [] chunk = new double[ITERATOR_CHUNK];
+
+        @Override
+        protected void fetch(int start, int length) {
+            getElements(chunk, start, length);
+        }
+
+        /**
+         * Gets the next element
+         * @return the next element as a double
+         * @throws NoSuchElementException if there are no more elements
+         * @since 3.1
+         */
+        public double nextDouble() {
+            return chunk[nextIndex()];
+        }
     }
 
     /**
@@ -236,4 +481,14 @@ public abstract class JSTypedArray<T> extends JSBaseArray<T> {
         JSValue subarray = property("subarray").toFunction().call(this,begin).toObject();
         return (JSTypedArray<T>) subarray.toJSArray();
     }
+
+    protected native double getNumberAtIndex(long ctx, long object, int index);
+
+    protected native void setNumberAtIndex(long ctx, long object, int index, double number);
+
+    protected native JNIReturnObject getElements(long ctx, long object, int index, Object dst,
+                                                 int length);
+
+    protected native JNIReturnObject setElements(long ctx, long object, int index, Object src,
+                                                 int length, boolean isUnsigned);
 }
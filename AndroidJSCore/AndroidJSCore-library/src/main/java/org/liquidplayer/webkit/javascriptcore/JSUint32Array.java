@@ -126,19 +126,60 @@ public class JSUint32Array extends JSTypedArray<Long> {
         return (JSUint32Array)super.subarray(begin);
     }
 
-    private JSUint32Array(JSUint32Array superList, int leftBuffer, int rightBuffer) {
-        super(superList,leftBuffer,rightBuffer,Long.class);
-    }
     /**
+     * Gets a view of a range of this array, backed by a JavaScript subarray() over the same
+     * buffer, so that changes to either are seen in both
      * @see java.util.List#subList(int, int)
      * @since 3.0
      */
     @Override @NonNull
-    @SuppressWarnings("unchecked")
     public JSUint32Array subList(final int fromIndex, final int toIndex) {
         if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
             throw new IndexOutOfBoundsException();
         }
-        return new JSUint32Array(this,fromIndex,size()-toIndex);
+        return subarray(fromIndex,toIndex);
+    }
+
+    /**
+     * Copies 'len' elements, starting at element 'srcOff', into 'dst' in a single call.
+     * @param dst  the array to copy into, starting from its first element
+     * @param srcOff  the first element of this array to copy
+     * @param len  the number of elements to copy
+     * @since 3.1
+     */
+    public void get(long[] dst, int srcOff, int len) {
+        getElements(dst, srcOff, len);
+    }
+
+    /**
+     * Copies the first 'len' elements of 'src' into this array, starting at element 'dstOff',
+     * in a single call.
+     * @param src  the array to copy from, starting from its first element
+     * @param dstOff  the first element of this array to copy to
+     * @param len  the number of elements to copy
+     * @since 3.1
+     */
+    public void set(long[] src, int dstOff, int len) {
+        setElements(src, dstOff, len, false);
+    }
+
+    /**
+     * Gets the element at 'index' as an unsigned value, without boxing it
+     * @param index  the index of the element
+     * @return the element value, from 0 to 4294967295
+     * @since 3.1
+     */
+    public long getLong(int index) {
+        return (long) getDouble(index);
+    }
+
+    /**
+     * Sets the element at 'index', without boxing it.  The value is stored modulo 2^32.
+     * @param index  the index of the element
+     * @param value  the new value
+     * @since 3.1
+     */
+    public void setLong(int index, long value) {
+        setDouble(index, value & 0xffffffffL);
     }
 }
@@ -34,6 +34,8 @@ package org.liquidplayer.webkit.javascriptcore;
 
 import android.support.annotation.NonNull;
 
+import java.nio.ByteBuffer;
+
 /**
  * A convenience class for handling JavaScript's Uint8Array
  * @since 3.0
@@ -96,6 +98,22 @@ public class JSUint8Array extends JSTypedArray<Byte> {
         super(buffer,"Uint8Array",Byte.class);
     }
 
+    /**
+     * Creates a typed array over the remaining bytes of a direct ByteBuffer, such as a
+     * MappedByteBuffer, without copying them.  Files mapped with FileChannel.MapMode.READ_ONLY
+     * cannot be wrapped; map them with MapMode.PRIVATE instead.
+     * @param ctx  The JSContext in which to create the typed array
+     * @param buffer  a direct, writable ByteBuffer
+     * @return a new typed array sharing its memory with 'buffer'
+     * @throws IllegalArgumentException if 'buffer' is not direct or is read-only
+     * @throws UnsupportedOperationException if JSArrayBuffer.isWrapSupported() is false
+     * @see JSArrayBuffer#JSArrayBuffer(JSContext, java.nio.ByteBuffer)
+     * @since 3.1
+     */
+    public static JSUint8Array wrap(JSContext ctx, ByteBuffer buffer) {
+        return new JSUint8Array(new JSArrayBuffer(ctx, buffer));
+    }
+
     /**
      * Treats an existing value as a typed array
      * @param valueRef  the JavaScriptCore value reference
@@ -126,20 +144,42 @@ public class JSUint8Array extends JSTypedArray<Byte> {
         return (JSUint8Array)super.subarray(begin);
     }
 
-    private JSUint8Array(JSUint8Array superList, int leftBuffer, int rightBuffer) {
-        super(superList,leftBuffer,rightBuffer,Byte.class);
-    }
     /**
+     * Gets a view of a range of this array, backed by a JavaScript subarray() over the same
+     * buffer, so that changes to either are seen in both
      * @see java.util.List#subList(int, int)
      * @since 3.0
      */
     @Override @NonNull
-    @SuppressWarnings("unchecked")
     public JSUint8Array subList(final int fromIndex, final int toIndex) {
         if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
             throw new IndexOutOfBoundsException();
         }
-        return new JSUint8Array(this,fromIndex,size()-toIndex);
+        return subarray(fromIndex,toIndex);
     }
 
+    /**
+     * Copies 'len' elements, starting at element 'srcOff', into 'dst' in a single call.
+     * Elements are stored as their low-order bits, so values above Byte.MAX_VALUE appear
+     * negative.
+     * @param dst  the array to copy into, starting from its first element
+     * @param srcOff  the first element of this array to copy
+     * @param len  the number of elements to copy
+     * @since 3.1
+     */
+    public void get(byte[] dst, int srcOff, int len) {
+        getElements(dst, srcOff, len);
+    }
+
+    /**
+     * Copies the first 'len' elements of 'src' into this array, starting at element 'dstOff',
+     * in a single call.  Elements of 'src' are treated as unsigned.
+     * @param src  the array to copy from, starting from its first element
+     * @param dstOff  the first element of this array to copy to
+     * @param len  the number of elements to copy
+     * @since 3.1
+     */
+    public void set(byte[] src, int dstOff, int len) {
+        setElements(src, dstOff, len, true);
+    }
 }
@@ -63,6 +63,10 @@ public class JSValue {
          * The reference return value
          */
         public long reference;
+        /**
+         * The string return value
+         */
+        public String string;
         /**
          * The exception reference if one was thrown, otherwise 0L
          */
@@ -736,8 +740,15 @@ public class JSValue {
     }
     private boolean isProtected = true;
 
+    /* JavaScriptCore JSType values, as returned by getType() */
+    static final int TYPE_UNDEFINED = 0;
+    static final int TYPE_NULL      = 1;
+    static final int TYPE_BOOLEAN   = 2;
+    static final int TYPE_NUMBER    = 3;
+    static final int TYPE_STRING    = 4;
+    static final int TYPE_OBJECT    = 5;
+
     /* Native functions */
-    @SuppressWarnings("unused")
     protected native int getType(long ctxRef, long valueRef);
     protected native boolean isUndefined(long ctxRef, long valueRef);
     protected native boolean isNull(long ctxRef, long valueRef );